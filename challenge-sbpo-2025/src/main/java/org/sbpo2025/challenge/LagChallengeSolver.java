@@ -22,39 +22,37 @@ public class LagChallengeSolver {
     private final long BIN_ITER = 5; 
     private final long LAG_ITER = 50; 
 
-    protected List<Map<Integer, Integer>> orders;
-    protected List<Map<Integer, Integer>> aisles;
+    protected Instance instance;
     protected int nItems;
     protected int waveSizeLB;
     protected int waveSizeUB;
 
-    public LagChallengeSolver(
-            List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems, int waveSizeLB, int waveSizeUB) {
-        this.orders = orders;
-        this.aisles = aisles;
-        this.nItems = nItems;
-        this.waveSizeLB = waveSizeLB;
-        this.waveSizeUB = waveSizeUB;
+    public LagChallengeSolver(Instance instance) {
+        this.instance = instance;
+        this.nItems = instance.nItems();
+        this.waveSizeLB = instance.waveSizeLB();
+        this.waveSizeUB = instance.waveSizeUB();
     }
 
     public ChallengeSolution solve(StopWatch stopWatch) {
-       // Build item-oriented maps
-        Map<Integer,Integer>[] OrderItems = new HashMap[nItems];
-        Map<Integer,Integer>[] AisleItems = new HashMap[nItems];
-        for(int i=0;i<nItems;i++){
-            OrderItems[i]=new HashMap<>();
-            AisleItems[i]=new HashMap<>();
-        }
-        for(int o=0;o<orders.size();o++){
-            for(Map.Entry<Integer,Integer> e: orders.get(o).entrySet()){
-                OrderItems[e.getKey()].put(o,e.getValue());
-            }
-        }
-        for(int a=0;a<aisles.size();a++){
-            for(Map.Entry<Integer,Integer> e: aisles.get(a).entrySet()){
-                AisleItems[e.getKey()].put(a,e.getValue());
-            }
-        }
+        int nOrders = instance.nOrders();
+        int nAisles = instance.nAisles();
+        int[] orderStart = instance.orderStart();
+        int[] orderItems = instance.orderItems();
+        int[] orderQuantities = instance.orderQuantities();
+        int[] orderUnits = instance.orderUnits();
+        int[] aisleStart = instance.aisleStart();
+        int[] aisleItems = instance.aisleItems();
+        int[] aisleQuantities = instance.aisleQuantities();
+
+        // Item-oriented view, built once per instance and shared by every solver
+        ItemIndex itemIndex = instance.itemIndex();
+        int[] itemOrderStart = itemIndex.orderStart();
+        int[] itemOrders = itemIndex.orders();
+        int[] itemOrderQuantities = itemIndex.orderQuantities();
+        int[] itemAisleStart = itemIndex.aisleStart();
+        int[] itemAisles = itemIndex.aisles();
+        int[] itemAisleQuantities = itemIndex.aisleQuantities();
         boolean mark = false;
         double bestOverallPrimal = Double.NEGATIVE_INFINITY;
         double dual = Double.NEGATIVE_INFINITY;
@@ -81,18 +79,16 @@ public class LagChallengeSolver {
             // cplex.setParam(IloCplex.IntParam.MIP.Strategy.Dive, 3);
             // cplex.setParam(IloCplex.IntParam.MIP.Limits.StrongIt, 10); 
             // cplex.setParam(IloCplex.IntParam.MIP.Strategy.Branch, 3);
-            IloNumVar [] ordvar = cplex.numVarArray(orders.size(),0,1, IloNumVarType.Bool);
-            IloNumVar [] aisvar = cplex.numVarArray(aisles.size(),0,1, IloNumVarType.Bool);
+            IloNumVar [] ordvar = cplex.numVarArray(nOrders,0,1, IloNumVarType.Bool);
+            IloNumVar [] aisvar = cplex.numVarArray(nAisles,0,1, IloNumVarType.Bool);
 
             
             IloLinearNumExpr sumorders = cplex.linearNumExpr();
-            for (int i = 0; i < orders.size(); i++) {
-                for (Map.Entry<Integer, Integer> entry : orders.get(i).entrySet()) {
-                    sumorders.addTerm(entry.getValue(),ordvar[i]);
-                }
+            for (int i = 0; i < nOrders; i++) {
+                sumorders.addTerm(orderUnits[i],ordvar[i]);
             }
             IloLinearNumExpr sumaisles = cplex.linearNumExpr();
-            for (int i = 0; i < aisles.size(); i++) {
+            for (int i = 0; i < nAisles; i++) {
                 sumaisles.addTerm(1,aisvar[i]);
             }
 
@@ -105,11 +101,11 @@ public class LagChallengeSolver {
             for (int i = 0; i < nItems; i++) {
                 IloLinearNumExpr ordersum = cplex.linearNumExpr();
                 IloLinearNumExpr aislesum = cplex.linearNumExpr();
-                for (Map.Entry<Integer, Integer> entry: OrderItems[i].entrySet()) {
-                    ordersum.addTerm(entry.getValue(),ordvar[entry.getKey()]);
+                for (int k = itemOrderStart[i]; k < itemOrderStart[i + 1]; k++) {
+                    ordersum.addTerm(itemOrderQuantities[k],ordvar[itemOrders[k]]);
                 }
-                for (Map.Entry<Integer, Integer> entry : AisleItems[i].entrySet()) {
-                    aislesum.addTerm(entry.getValue(),aisvar[entry.getKey()]);
+                for (int k = itemAisleStart[i]; k < itemAisleStart[i + 1]; k++) {
+                    aislesum.addTerm(itemAisleQuantities[k],aisvar[itemAisles[k]]);
                 }
                 cplex.addLe(ordersum,aislesum);
             }
@@ -144,13 +140,11 @@ public class LagChallengeSolver {
                         cplex.setParam(IloCplex.IntParam.RootAlg, IloCplex.Algorithm.Dual);
                     }
                     objetivo = cplex.linearNumExpr();
-                    for (int i = 0; i < orders.size(); i++) {
-                        for (Map.Entry<Integer, Integer> entry : orders.get(i).entrySet()) {
-                            objetivo.addTerm(entry.getValue(),ordvar[i]);
-                        }
+                    for (int i = 0; i < nOrders; i++) {
+                        objetivo.addTerm(orderUnits[i],ordvar[i]);
                     }
                     
-                    for (int i = 0; i < aisles.size(); i++) {
+                    for (int i = 0; i < nAisles; i++) {
                         objetivo.addTerm(-alpha,aisvar[i]);
                     }
 
@@ -164,7 +158,7 @@ public class LagChallengeSolver {
                 if (cplex.solve()) {
                     // System.out.println("Valor ótimo = " + cplex.getObjValue());
                     double g=0;
-                    for(int a=0;a<aisles.size();a++){
+                    for(int a=0;a<nAisles;a++){
                         if(cplex.getValue(aisvar[a])>0.5){ g++; }
                     }
                     alpha = alpha + cplex.getObjValue()/g;
@@ -186,11 +180,11 @@ public class LagChallengeSolver {
            
             bestOrders.clear();
             bestAisles.clear();
-            for (int i = 0; i < orders.size(); i++) {
+            for (int i = 0; i < nOrders; i++) {
                 if(cplex.getValue(ordvar[i]) > 0.5)
                     bestOrders.add(i);
             }
-            for (int i = 0; i < aisles.size(); i++) {
+            for (int i = 0; i < nAisles; i++) {
                 if(cplex.getValue(aisvar[i]) > + 0.5)
                     bestAisles.add(i);
             }
@@ -230,14 +224,14 @@ public class LagChallengeSolver {
                 double bestDual = Double.NEGATIVE_INFINITY;
                 for (int i = 0; i < nItems; i++) {
                     double lo = 0, hi = 0;
-                    for (Map.Entry<Integer, Integer> e : OrderItems[i].entrySet()) {
-                        if (bestOrders.contains(e.getKey())) {
-                            lo += e.getValue();
+                    for (int k = itemOrderStart[i]; k < itemOrderStart[i + 1]; k++) {
+                        if (bestOrders.contains(itemOrders[k])) {
+                            lo += itemOrderQuantities[k];
                         }
                     }
-                    for (Map.Entry<Integer, Integer> e : AisleItems[i].entrySet()) {
-                        if (bestAisles.contains(e.getKey())) {
-                            hi += e.getValue();
+                    for (int k = itemAisleStart[i]; k < itemAisleStart[i + 1]; k++) {
+                        if (bestAisles.contains(itemAisles[k])) {
+                            hi += itemAisleQuantities[k];
                         }
                     }
                     lambda[i] = hi-lo;
@@ -251,18 +245,18 @@ public class LagChallengeSolver {
                     // cplex.setParam(IloCplex.IntParam.MIP.Interval, 0);
                     // cplex.setParam(IloCplex.IntParam.MIP.Limits.TreeMemory, 0);
                     // Variables
-                    IloNumVar[] ordvar = new IloNumVar[orders.size()];
-                    for (int i = 0; i < orders.size(); i++) {
+                    IloNumVar[] ordvar = new IloNumVar[nOrders];
+                    for (int i = 0; i < nOrders; i++) {
                         ordvar[i] = cplex.numVar(0,1, IloNumVarType.Bool,"ord_" + i);
                     }
-                    IloNumVar[] aisvar = new IloNumVar[aisles.size()];
-                    for (int a = 0; a < aisles.size(); a++) {
+                    IloNumVar[] aisvar = new IloNumVar[nAisles];
+                    for (int a = 0; a < nAisles; a++) {
                         aisvar[a] = cplex.numVar(0,1, IloNumVarType.Bool,"ais_" + a);
                     }
                     // Começar com esses
                     // if(!bestOrders.isEmpty() || !bestAisles.isEmpty()) {
-                    int nOrd = orders.size();
-                    int nAis = aisles.size();
+                    int nOrd = nOrders;
+                    int nAis = nAisles;
                     IloNumVar[] allVars = new IloNumVar[nOrd + nAis];
                     double[] allVals = new double[nOrd + nAis];
                     for (int i = 0; i < nOrd; i++) {
@@ -280,21 +274,21 @@ public class LagChallengeSolver {
                     IloLinearNumExpr sumaisles = cplex.linearNumExpr();
                     IloLinearNumExpr lagr = cplex.linearNumExpr();
                     // Build
-                    for(int o=0;o<orders.size();o++){
+                    for(int o=0;o<nOrders;o++){
                         double coeff=0;
-                        for(Map.Entry<Integer,Integer> e: orders.get(o).entrySet()){
-                            int i = e.getKey();
-                            int u = e.getValue();
+                        for(int k=orderStart[o];k<orderStart[o+1];k++){
+                            int i = orderItems[k];
+                            int u = orderQuantities[k];
                             coeff += u * (1 - lambda[i]);
                             sumorders.addTerm(u, ordvar[o]);
                         }
                         lagr.addTerm(coeff, ordvar[o]);
                     }
-                    for(int a=0;a<aisles.size();a++){
+                    for(int a=0;a<nAisles;a++){
                         double coeff=0;
-                        for(Map.Entry<Integer,Integer> e: aisles.get(a).entrySet()){
-                            int i = e.getKey();
-                            int u = e.getValue();
+                        for(int k=aisleStart[a];k<aisleStart[a+1];k++){
+                            int i = aisleItems[k];
+                            int u = aisleQuantities[k];
                             coeff += lambda[i] * u;
                         }
                         sumaisles.addTerm(1, aisvar[a]);
@@ -316,13 +310,13 @@ public class LagChallengeSolver {
                     // Evaluate solution
                     double f=0,g=0;
                     Set<Integer> usedO=new HashSet<>(), usedA=new HashSet<>();
-                    for(int o=0;o<orders.size();o++){
+                    for(int o=0;o<nOrders;o++){
                         if(cplex.getValue(ordvar[o])>0.5){
                             usedO.add(o);
-                            for(Map.Entry<Integer,Integer> e: orders.get(o).entrySet()) f+=e.getValue();
+                            f+=orderUnits[o];
                         }
                     }
-                    for(int a=0;a<aisles.size();a++){
+                    for(int a=0;a<nAisles;a++){
                         if(cplex.getValue(aisvar[a])>0.5){ usedA.add(a); g++; }
                     }
                     double phi = f - alpha*g;
@@ -330,8 +324,8 @@ public class LagChallengeSolver {
                     boolean feasible=true;
                     for(int i=0;i<nItems;i++){
                         double lo=0, hi=0;
-                        for(Map.Entry<Integer,Integer> e: OrderItems[i].entrySet()) lo+=e.getValue()*cplex.getValue(ordvar[e.getKey()]);
-                        for(Map.Entry<Integer,Integer> e: AisleItems[i].entrySet()) hi+=e.getValue()*cplex.getValue(aisvar[e.getKey()]);
+                        for(int k=itemOrderStart[i];k<itemOrderStart[i+1];k++) lo+=itemOrderQuantities[k]*cplex.getValue(ordvar[itemOrders[k]]);
+                        for(int k=itemAisleStart[i];k<itemAisleStart[i+1];k++) hi+=itemAisleQuantities[k]*cplex.getValue(aisvar[itemAisles[k]]);
                         if(lo>hi+epsilon){
                             // System.out.printf("Item %d: LHS=%.2f, RHS=%.2f, slack=%.2f%n", i, lo, hi, hi-lo);
                             feasible=false;
@@ -352,8 +346,8 @@ public class LagChallengeSolver {
                     double normSq = 0;
                     for(int i=0;i<nItems;i++){
                         double lo=0, hi=0;
-                        for(Map.Entry<Integer,Integer> e: OrderItems[i].entrySet()) lo+=e.getValue()*cplex.getValue(ordvar[e.getKey()]);
-                        for(Map.Entry<Integer,Integer> e: AisleItems[i].entrySet()) hi+=e.getValue()*cplex.getValue(aisvar[e.getKey()]);
+                        for(int k=itemOrderStart[i];k<itemOrderStart[i+1];k++) lo+=itemOrderQuantities[k]*cplex.getValue(ordvar[itemOrders[k]]);
+                        for(int k=itemAisleStart[i];k<itemAisleStart[i+1];k++) hi+=itemAisleQuantities[k]*cplex.getValue(aisvar[itemAisles[k]]);
                         subg[i] = hi - lo;
                         normSq += subg[i] * subg[i];
                     }
@@ -404,17 +398,24 @@ public class LagChallengeSolver {
         int[] totalUnitsPicked = new int[nItems];
         int[] totalUnitsAvailable = new int[nItems];
 
+        int[] orderStart = instance.orderStart();
+        int[] orderItems = instance.orderItems();
+        int[] orderQuantities = instance.orderQuantities();
+        int[] aisleStart = instance.aisleStart();
+        int[] aisleItems = instance.aisleItems();
+        int[] aisleQuantities = instance.aisleQuantities();
+
         // Calculate total units picked
         for (int order : selectedOrders) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                totalUnitsPicked[entry.getKey()] += entry.getValue();
+            for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+                totalUnitsPicked[orderItems[k]] += orderQuantities[k];
             }
         }
 
         // Calculate total units available
         for (int aisle : visitedAisles) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                totalUnitsAvailable[entry.getKey()] += entry.getValue();
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                totalUnitsAvailable[aisleItems[k]] += aisleQuantities[k];
             }
         }
 
@@ -443,10 +444,9 @@ public class LagChallengeSolver {
         int totalUnitsPicked = 0;
 
         // Calculate total units picked
+        int[] orderUnits = instance.orderUnits();
         for (int order : selectedOrders) {
-            totalUnitsPicked += orders.get(order).values().stream()
-                    .mapToInt(Integer::intValue)
-                    .sum();
+            totalUnitsPicked += orderUnits[order];
         }
 
         // Calculate the number of visited aisles
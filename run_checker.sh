@@ -10,9 +10,10 @@ fi
 pasta1="$1"
 pasta2="$2"
 
-# Verifica se o script checker.py existe
-if [[ ! -f ./checker.py ]]; then
-    echo "Erro: O script 'checker.py' não foi encontrado."
+# Verifica se o jar foi compilado (mvn clean package)
+jar="target/ChallengeSBPO2025-1.0.jar"
+if [[ ! -f "$jar" ]]; then
+    echo "Erro: O arquivo '$jar' não foi encontrado. Execute 'mvn clean package' antes."
     exit 1
 fi
 
@@ -27,20 +28,5 @@ if [[ ! -d "$pasta2" ]]; then
     exit 1
 fi
 
-# Percorre os arquivos da primeira pasta
-for file1 in "$pasta1"/*; do
-    # Obtém o nome do arquivo sem o caminho
-    filename=$(basename "$file1")
-    
-    # Caminho correspondente na segunda pasta
-    file2="$pasta2/$filename"
-    
-    # Verifica se o arquivo correspondente existe na segunda pasta
-    if [[ -f "$file2" ]]; then
-        echo "Executando checker.py com '$file1'"
-        python3 checker.py "$file1" "$file2"
-        # echo "---------------------------------"
-    else
-        echo "Aviso: Arquivo correspondente '$filename' não encontrado em '$pasta2'."
-    fi
-done
+# Valida todos os pares de arquivos em paralelo numa única JVM (arquivos ausentes aparecem como 'missing')
+java -jar "$jar" validate "$pasta1" "$pasta2"
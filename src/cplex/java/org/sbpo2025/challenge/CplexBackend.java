@@ -0,0 +1,292 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import ilog.concert.*;
+import ilog.cplex.*;
+
+/*
+ * MipBackend on top of IloCplex, the only class that references ilog.*. It lives in src/cplex/java, compiled by
+ * the cplex Maven profile, and MipBackend.create loads it by name.
+ */
+public class CplexBackend implements MipBackend {
+    private final IloCplex cplex;
+    private IloNumVar[] variables = new IloNumVar[0];
+    private int nVariables = 0;
+    private final Map<Integer, IloConstraint> constraints = new HashMap<>();
+    private int nextHandle = 0;
+    private IloObjective objective = null;
+    private final FirstIncumbentCallback firstIncumbent = new FirstIncumbentCallback();
+    private volatile boolean aborted = false;
+
+    /*
+     * Informational callback, it does not turn off dynamic search
+     */
+    private static class FirstIncumbentCallback extends IloCplex.MIPInfoCallback {
+        private volatile double seconds = Double.NaN;
+
+        @Override
+        protected void main() throws IloException {
+            if (Double.isNaN(seconds) && hasIncumbent()) {
+                seconds = getCplexTime() - getStartTime();
+            }
+        }
+    }
+
+    public CplexBackend() {
+        try {
+            cplex = new IloCplex();
+            cplex.setOut(null);
+            cplex.setWarning(null);
+            cplex.use(firstIncumbent);
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    private void setParam(IloCplex.IntParam param, int value) {
+        try {
+            cplex.setParam(param, value);
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    private void setParam(IloCplex.DoubleParam param, double value) {
+        try {
+            cplex.setParam(param, value);
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public int[] addVariables(int count, double lb, double ub, boolean integer) {
+        IloNumVarType type = !integer ? IloNumVarType.Float : (lb == 0 && ub == 1 ? IloNumVarType.Bool : IloNumVarType.Int);
+        try {
+            return register(cplex.numVarArray(count, lb, ub, type));
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public int[] addVariables(double[] lb, double[] ub, boolean integer) {
+        try {
+            return register(cplex.numVarArray(lb.length, lb, ub, integer ? IloNumVarType.Int : IloNumVarType.Float));
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    private int[] register(IloNumVar[] created) {
+        int count = created.length;
+        if (nVariables + count > variables.length) {
+            variables = Arrays.copyOf(variables, Math.max(2 * variables.length, nVariables + count));
+        }
+        int[] indexes = new int[count];
+        for (int k = 0; k < count; k++) {
+            variables[nVariables] = created[k];
+            indexes[k] = nVariables++;
+        }
+        return indexes;
+    }
+
+    @Override
+    public int addConstraint(int[] vars, double[] coefficients, double lb, double ub) {
+        try {
+            IloLinearNumExpr expr = linearExpr(vars, coefficients);
+            IloConstraint constraint;
+            if (lb <= -INFINITY) {
+                constraint = cplex.addLe(expr, ub);
+            } else if (ub >= INFINITY) {
+                constraint = cplex.addGe(expr, lb);
+            } else {
+                constraint = cplex.addRange(lb, expr, ub);
+            }
+            constraints.put(nextHandle, constraint);
+            return nextHandle++;
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public void removeConstraint(int handle) {
+        try {
+            cplex.remove(constraints.remove(handle));
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public void setObjective(int[] vars, double[] coefficients) {
+        try {
+            if (objective != null) {
+                cplex.remove(objective);
+            }
+            objective = cplex.addMaximize(linearExpr(vars, coefficients));
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public void setObjectiveCoefficients(int[] vars, double[] coefficients) {
+        IloNumVar[] selected = new IloNumVar[vars.length];
+        for (int k = 0; k < vars.length; k++) {
+            selected[k] = variables[vars[k]];
+        }
+        try {
+            cplex.setLinearCoefs(objective, coefficients, selected);
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public void setRelativeGapTolerance(double gap) {
+        setParam(IloCplex.Param.MIP.Tolerances.MIPGap, gap);
+    }
+
+    @Override
+    public void setThreads(int threads) {
+        setParam(IloCplex.IntParam.Threads, threads);
+    }
+
+    @Override
+    public void setQuiet(boolean quiet) {
+        setParam(IloCplex.IntParam.MIP.Display, quiet ? 0 : 2);
+        if (quiet) {
+            setParam(IloCplex.IntParam.MIP.Interval, 0);
+        }
+    }
+
+    @Override
+    public void setTreeMemoryLimit(int megabytes) {
+        setParam(IloCplex.IntParam.MIP.Limits.TreeMemory, megabytes);
+    }
+
+    @Override
+    public void useDualSimplexAtRoot() {
+        setParam(IloCplex.IntParam.RootAlg, IloCplex.Algorithm.Dual);
+    }
+
+    @Override
+    public void setMipStart(int[] vars, double[] values) {
+        IloNumVar[] selected = new IloNumVar[vars.length];
+        for (int k = 0; k < vars.length; k++) {
+            selected[k] = variables[vars[k]];
+        }
+        try {
+            if (cplex.getNMIPStarts() > 0) {
+                cplex.deleteMIPStarts(0, cplex.getNMIPStarts());
+            }
+            cplex.addMIPStart(selected, values, IloCplex.MIPStartEffort.CheckFeas);
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public Status solve(double timeLimitSeconds) {
+        if (aborted) {
+            return Status.UNKNOWN;
+        }
+        try {
+            cplex.setParam(IloCplex.DoubleParam.TiLim, Math.max(0, timeLimitSeconds));
+            firstIncumbent.seconds = Double.NaN;
+            double start = cplex.getCplexTime();
+            cplex.solve();
+            Status status = status();
+            // Solved before the callback ever ran, e.g. at the root with the MIP start
+            if (status.hasSolution() && Double.isNaN(firstIncumbent.seconds)) {
+                firstIncumbent.seconds = cplex.getCplexTime() - start;
+            }
+            return status;
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    private Status status() throws IloException {
+        IloCplex.Status status = cplex.getStatus();
+        if (status == IloCplex.Status.Optimal) {
+            return Status.OPTIMAL;
+        }
+        if (status == IloCplex.Status.Feasible) {
+            return Status.FEASIBLE;
+        }
+        if (status == IloCplex.Status.Infeasible || status == IloCplex.Status.InfeasibleOrUnbounded) {
+            return Status.INFEASIBLE;
+        }
+        return Status.UNKNOWN;
+    }
+
+    @Override
+    public double getObjectiveValue() {
+        try {
+            return cplex.getObjValue();
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public double getRelativeGap() {
+        try {
+            return cplex.getMIPRelativeGap();
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public double getBestBound() {
+        try {
+            return cplex.getBestObjValue();
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public double getTimeToFirstIncumbent() {
+        return firstIncumbent.seconds;
+    }
+
+    @Override
+    public double[] getValues(int[] vars) {
+        IloNumVar[] selected = new IloNumVar[vars.length];
+        for (int k = 0; k < vars.length; k++) {
+            selected[k] = variables[vars[k]];
+        }
+        try {
+            return cplex.getValues(selected);
+        } catch (IloException e) {
+            throw new MipBackendException(e);
+        }
+    }
+
+    @Override
+    public void abort() {
+        aborted = true;
+        cplex.abort();
+    }
+
+    @Override
+    public void close() {
+        cplex.end();
+    }
+
+    private IloLinearNumExpr linearExpr(int[] vars, double[] coefficients) throws IloException {
+        IloLinearNumExpr expr = cplex.linearNumExpr();
+        for (int k = 0; k < vars.length; k++) {
+            expr.addTerm(coefficients[k], variables[vars[k]]);
+        }
+        return expr;
+    }
+}
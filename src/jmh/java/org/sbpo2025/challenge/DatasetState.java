@@ -0,0 +1,51 @@
+package org.sbpo2025.challenge;
+
+import java.nio.file.Path;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * One instance of datasetFolder per trial, plus a wave to evaluate: the best of a single
+ * HeuristicChallengeSolver restart (empty when the restart finds nothing).
+ * Run from the project root, or pass -p datasetFolder=<path>.
+ */
+@State(Scope.Benchmark)
+public class DatasetState {
+    @Param("datasets/a")
+    public String datasetFolder;
+
+    @Param({"instance_0001", "instance_0002", "instance_0003", "instance_0004", "instance_0005",
+            "instance_0006", "instance_0007", "instance_0008", "instance_0009", "instance_0010",
+            "instance_0011", "instance_0012", "instance_0013", "instance_0014", "instance_0015",
+            "instance_0016", "instance_0017", "instance_0018", "instance_0019", "instance_0020"})
+    public String instanceName;
+
+    String inputFilePath;
+    Instance instance;
+    ChallengeSolution wave;
+    TreeSet<Integer> waveOrders;
+    int[] orders;
+    int[] aisles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        inputFilePath = Path.of(datasetFolder, instanceName + ".txt").toString();
+        Challenge challenge = new Challenge();
+        challenge.readInput(inputFilePath);
+        instance = challenge.getInstance();
+        if (instance == null) {
+            throw new IllegalStateException("Cannot read " + inputFilePath);
+        }
+
+        wave = new HeuristicChallengeSolver(instance).solveIncremental(StopWatch.createStarted(), 1, 60);
+        waveOrders = new TreeSet<>(wave.orders());
+        orders = wave.orders().stream().mapToInt(Integer::intValue).toArray();
+        aisles = wave.aisles().stream().mapToInt(Integer::intValue).toArray();
+    }
+}
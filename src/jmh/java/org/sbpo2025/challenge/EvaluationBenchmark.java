@@ -0,0 +1,48 @@
+package org.sbpo2025.challenge;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Feasibility and objective of the DatasetState wave through SolutionEvaluator, from the solution
+ * (Set<Integer>) and from primitive arrays
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+    private SolutionEvaluator evaluator;
+
+    @Setup
+    public void setUp(DatasetState state) {
+        evaluator = new SolutionEvaluator(state.instance);
+    }
+
+    @Benchmark
+    public boolean isSolutionFeasible(DatasetState state) {
+        return evaluator.isFeasible(state.wave);
+    }
+
+    @Benchmark
+    public double computeObjectiveFunction(DatasetState state) {
+        return evaluator.objective(state.wave);
+    }
+
+    @Benchmark
+    public double evaluateArrays(DatasetState state) {
+        return evaluator.evaluate(state.orders, state.orders.length, state.aisles, state.aisles.length);
+    }
+}
@@ -0,0 +1,55 @@
+package org.sbpo2025.challenge;
+
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Steps of HeuristicChallengeSolver: the aisle cover of the legacy loop (LegacyHeuristic.bestAislesToOrders),
+ * one restart of the legacy loop (cut after LEGACY_BUDGET seconds on the big instances, the time is then a lower
+ * bound) and one restart of the incremental loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeuristicStepBenchmark {
+    private static final long LEGACY_BUDGET = 10; // seconds
+
+    private HeuristicChallengeSolver solver;
+    private LegacyHeuristic legacy;
+
+    @Setup
+    public void setUp(DatasetState state) {
+        solver = new HeuristicChallengeSolver(state.instance);
+        legacy = new LegacyHeuristic(state.instance);
+    }
+
+    @Benchmark
+    public TreeSet<Integer> bestAislesToOrders(DatasetState state) {
+        return legacy.bestAislesToOrders(state.waveOrders);
+    }
+
+    @Benchmark
+    public ChallengeSolution legacyRestart() {
+        return legacy.solve(StopWatch.createStarted(), 1, LEGACY_BUDGET);
+    }
+
+    @Benchmark
+    public ChallengeSolution incrementalRestart() {
+        return solver.solveIncremental(StopWatch.createStarted(), 1, 60);
+    }
+}
@@ -0,0 +1,32 @@
+package org.sbpo2025.challenge;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Per-instance structures built before solving: the item -> order / item -> aisle index
+ * and the order grouping of SliceChallengeSolver.createCompressedOrder (binary split)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBenchmark {
+    @Benchmark
+    public ItemIndex itemIndex(DatasetState state) {
+        return ItemIndex.build(state.instance);
+    }
+
+    @Benchmark
+    public OrderAggregator compressOrders(DatasetState state) {
+        return new OrderAggregator(state.instance, true);
+    }
+}
@@ -0,0 +1,99 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+/*
+ * Original greedy of HeuristicChallengeSolver, recomputing the aisle cover from scratch after every order,
+ * kept here as the reference of HeuristicStepBenchmark
+ */
+final class LegacyHeuristic {
+    private final Instance instance;
+    private final ArrayList<Integer> ordersIndexes = new ArrayList<Integer>();
+    private final AisleCoverOracle coverOracle;
+    private final int[] orderBuffer;
+
+    LegacyHeuristic(Instance instance) {
+        this.instance = instance;
+        for(int i = 0 ; i < instance.nOrders() ; i++){
+            ordersIndexes.add(i);
+        }
+        coverOracle = new AisleCoverOracle(instance);
+        orderBuffer = new int[instance.nOrders()];
+    }
+
+    ChallengeSolution solve(StopWatch stopWatch, int restarts, long maxSeconds) {
+        int waveSizeLB = instance.waveSizeLB();
+        int waveSizeUB = instance.waveSizeUB();
+        var bestNumberOfItems = 0;
+        TreeSet<Integer> bestOrders = new TreeSet<>();
+        TreeSet<Integer> bestAisles = new TreeSet<>();
+
+        for(int iteration = 0 ; iteration < restarts ; iteration++){
+            if(stopWatch.getDuration().getSeconds() > maxSeconds){
+                break;
+            }
+
+            var takedOrders = new TreeSet<Integer>();
+
+            for(var orderNumber: ordersIndexes){
+                if(stopWatch.getDuration().getSeconds() > maxSeconds){
+                    break;
+                }
+
+                takedOrders.add(orderNumber);
+
+                var ailes = bestAislesToOrders(takedOrders);
+                var currentNumberOfItems = getOrdersItemsSum(takedOrders);
+
+                if(ailes.size() == 0 || currentNumberOfItems > waveSizeUB){
+                    takedOrders.remove(orderNumber);
+                }else if(
+                    currentNumberOfItems >= waveSizeLB && (
+                        bestNumberOfItems == 0 ||
+                        currentNumberOfItems * bestAisles.size() > bestNumberOfItems * ailes.size()
+                    )
+                ){
+                        bestNumberOfItems = currentNumberOfItems;
+                        bestOrders = new TreeSet<>(takedOrders);
+                        bestAisles = ailes;
+                }
+            }
+
+            Collections.shuffle(ordersIndexes);
+        }
+
+        return new ChallengeSolution(bestOrders, bestAisles);
+    }
+
+    private int getOrdersItemsSum(TreeSet<Integer> selectedOrders){
+        var sum = 0;
+        int[] orderUnits = instance.orderUnits();
+
+        for(var orderNumber: selectedOrders){
+            sum += orderUnits[orderNumber];
+        }
+
+        return sum;
+    }
+
+    /*
+     * Small aisle set covering the selected orders (AisleCoverOracle), empty when no aisle set covers them
+     */
+    TreeSet<Integer> bestAislesToOrders(TreeSet<Integer> selectedOrders){
+        int nOrders = 0;
+        for(int orderNumber: selectedOrders){
+            orderBuffer[nOrders++] = orderNumber;
+        }
+
+        var answer = new TreeSet<Integer>();
+        int nAisles = coverOracle.cover(orderBuffer, nOrders);
+        for(int k = 0 ; k < nAisles ; k++){
+            answer.add(coverOracle.aisles()[k]);
+        }
+        return answer;
+    }
+}
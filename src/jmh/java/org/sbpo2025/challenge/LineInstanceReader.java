@@ -0,0 +1,62 @@
+package org.sbpo2025.challenge;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Line-based reader (readLine, split, one HashMap per row) that Challenge.readInput replaced,
+ * kept here as the reference of ParseBenchmark
+ */
+final class LineInstanceReader {
+    private LineInstanceReader() {
+    }
+
+    static Instance read(String inputFilePath) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(inputFilePath))) {
+            String line = reader.readLine();
+            String[] firstLine = line.split(" ");
+            int nOrders = Integer.parseInt(firstLine[0]);
+            int nItems = Integer.parseInt(firstLine[1]);
+            int nAisles = Integer.parseInt(firstLine[2]);
+
+            // Initialize orders and aisles arrays
+            List<Map<Integer, Integer>> orders = new ArrayList<>(nOrders);
+            List<Map<Integer, Integer>> aisles = new ArrayList<>(nAisles);
+
+            // Read orders
+            readItemQuantityPairs(reader, nOrders, orders);
+
+            // Read aisles
+            readItemQuantityPairs(reader, nAisles, aisles);
+
+            // Read wave size bounds
+            line = reader.readLine();
+            String[] bounds = line.split(" ");
+            int waveSizeLB = Integer.parseInt(bounds[0]);
+            int waveSizeUB = Integer.parseInt(bounds[1]);
+
+            return Instance.fromMaps(orders, aisles, nItems, waveSizeLB, waveSizeUB);
+        }
+    }
+
+    private static void readItemQuantityPairs(BufferedReader reader, int nLines, List<Map<Integer, Integer>> orders) throws IOException {
+        String line;
+        for (int orderIndex = 0; orderIndex < nLines; orderIndex++) {
+            line = reader.readLine();
+            String[] orderLine = line.split(" ");
+            int nOrderItems = Integer.parseInt(orderLine[0]);
+            Map<Integer, Integer> orderMap = new HashMap<>();
+            for (int k = 0; k < nOrderItems; k++) {
+                int itemIndex = Integer.parseInt(orderLine[2 * k + 1]);
+                int itemQuantity = Integer.parseInt(orderLine[2 * k + 2]);
+                orderMap.put(itemIndex, itemQuantity);
+            }
+            orders.add(orderMap);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Challenge.readInput (memory-mapped) against the line-based reference reader, LineInstanceReader
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    @Benchmark
+    public Instance readInput(DatasetState state) {
+        Challenge challenge = new Challenge();
+        challenge.readInput(state.inputFilePath);
+        return challenge.getInstance();
+    }
+
+    @Benchmark
+    public Instance readInputBuffered(DatasetState state) throws IOException {
+        return LineInstanceReader.read(state.inputFilePath);
+    }
+}
@@ -0,0 +1,311 @@
+package org.sbpo2025.challenge;
+
+/*
+ * Small aisle set covering a demand vector, the set cover step shared by the heuristic, GreedyConstructor and
+ * LocalSearch. Lazy greedy: candidate aisles (those stocking a demanded item, from ItemIndex) sit in a max-heap
+ * keyed by their marginal coverage, sum over items of min(stock, demand still uncovered). Coverage only shrinks
+ * as aisles are picked, so a popped aisle is rescored and picked when it still beats the next key, otherwise
+ * it goes back with the new key. A redundancy pass then drops picked aisles whose stock the others already cover.
+ * Buffers are sized once per instance and reset through the list of touched items, so a call costs
+ * O(entries of the candidate aisles * log aisles), nothing proportional to nItems. Not thread safe.
+ */
+final class AisleCoverOracle {
+    private final int[] orderStart;
+    private final int[] orderItems;
+    private final int[] orderQuantities;
+    private final int[] aisleStart;
+    private final int[] aisleItems;
+    private final int[] aisleQuantities;
+    private final int[] itemAisleStart;
+    private final int[] itemAisles;
+
+    // Per item, zero outside the touched items
+    private final int[] demand;
+    private final int[] remaining;
+    private final int[] supply;
+    private final int[] touched;
+    private int nTouched = 0;
+
+    // Max-heap of candidate aisles by key
+    private final int[] heapAisles;
+    private final int[] heapKeys;
+    private int heapSize = 0;
+    private final int[] stamp;
+    private int currentStamp = 0;
+
+    private final int[] picked;
+    private int nPicked = 0;
+    // Tie-break order of the aisles, the aisle index unless set
+    private int[] rank;
+
+    AisleCoverOracle(Instance instance) {
+        this.orderStart = instance.orderStart();
+        this.orderItems = instance.orderItems();
+        this.orderQuantities = instance.orderQuantities();
+        this.aisleStart = instance.aisleStart();
+        this.aisleItems = instance.aisleItems();
+        this.aisleQuantities = instance.aisleQuantities();
+        ItemIndex itemIndex = instance.itemIndex();
+        this.itemAisleStart = itemIndex.aisleStart();
+        this.itemAisles = itemIndex.aisles();
+
+        int nItems = instance.nItems();
+        int nAisles = instance.nAisles();
+        this.demand = new int[nItems];
+        this.remaining = new int[nItems];
+        this.supply = new int[nItems];
+        this.touched = new int[nItems];
+        this.heapAisles = new int[nAisles];
+        this.heapKeys = new int[nAisles];
+        this.stamp = new int[nAisles];
+        this.picked = new int[nAisles];
+    }
+
+    /*
+     * Covers the demand of the given orders from scratch. Returns the number of aisles, left in aisles()[0..n),
+     * or -1 when even all aisles together do not cover it.
+     */
+    int cover(int[] orders, int nOrders) {
+        reset();
+        for (int i = 0; i < nOrders; i++) {
+            int order = orders[i];
+            for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+                addDemand(orderItems[k], orderQuantities[k]);
+            }
+        }
+        int uncovered = 0;
+        for (int t = 0; t < nTouched; t++) {
+            remaining[touched[t]] = demand[touched[t]];
+            uncovered += demand[touched[t]];
+        }
+
+        collectCandidates(null);
+        while (uncovered > 0 && heapSize > 0) {
+            int aisle = popBest();
+            if (aisle < 0) {
+                break;
+            }
+            uncovered -= pick(aisle);
+        }
+        if (uncovered > 0) {
+            return -1;
+        }
+
+        // Redundancy elimination, latest picks first: they cover the least on their own
+        for (int p = 0; p < nPicked; p++) {
+            int aisle = picked[p];
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                supply[aisleItems[k]] += aisleQuantities[k];
+            }
+        }
+        int kept = nPicked;
+        for (int p = nPicked - 1; p >= 0; p--) {
+            int aisle = picked[p];
+            if (canDrop(aisle)) {
+                for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                    supply[aisleItems[k]] -= aisleQuantities[k];
+                }
+                picked[p] = picked[--kept];
+            }
+        }
+        nPicked = kept;
+        // supply is dirty outside the touched items, clear what the picked aisles added
+        for (int p = 0; p < nPicked; p++) {
+            int aisle = picked[p];
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                supply[aisleItems[k]] = 0;
+            }
+        }
+        return nPicked;
+    }
+
+    /*
+     * Opens closed aisles of the state until the items of the order just added are covered again, then closes
+     * the newly opened ones that turned out redundant. Returns the number still open, left in aisles()[0..n).
+     */
+    int extend(AisleCoverState state, int order) {
+        reset();
+        int uncovered = 0;
+        for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+            int item = orderItems[k];
+            int deficit = state.deficit(item);
+            if (deficit > 0 && remaining[item] == 0) {
+                touched[nTouched++] = item;
+                remaining[item] = deficit;
+                uncovered += deficit;
+            }
+        }
+        if (uncovered == 0) {
+            return 0;
+        }
+
+        collectCandidates(state);
+        while (uncovered > 0 && heapSize > 0) {
+            int aisle = popBest();
+            if (aisle < 0) {
+                break;
+            }
+            uncovered -= pick(aisle);
+            state.openAisle(aisle);
+        }
+
+        int kept = nPicked;
+        for (int p = nPicked - 1; p >= 0; p--) {
+            if (state.canClose(picked[p])) {
+                state.closeAisle(picked[p]);
+                picked[p] = picked[--kept];
+            }
+        }
+        nPicked = kept;
+        return nPicked;
+    }
+
+    /*
+     * Aisles of equal coverage are picked by increasing rank (the caller may change the array between calls,
+     * e.g. a shuffled order per restart), null goes back to the aisle index
+     */
+    void setRank(int[] rank) {
+        this.rank = rank;
+    }
+
+    /*
+     * Aisles of the last call, valid up to its return value
+     */
+    int[] aisles() {
+        return picked;
+    }
+
+    private void reset() {
+        for (int t = 0; t < nTouched; t++) {
+            demand[touched[t]] = 0;
+            remaining[touched[t]] = 0;
+        }
+        nTouched = 0;
+        heapSize = 0;
+        nPicked = 0;
+    }
+
+    private void addDemand(int item, int quantity) {
+        if (demand[item] == 0) {
+            touched[nTouched++] = item;
+        }
+        demand[item] += quantity;
+    }
+
+    /*
+     * Heap of the aisles stocking a touched item, skipping the ones already open in the state (if any)
+     */
+    private void collectCandidates(AisleCoverState state) {
+        currentStamp++;
+        for (int t = 0; t < nTouched; t++) {
+            int item = touched[t];
+            for (int j = itemAisleStart[item]; j < itemAisleStart[item + 1]; j++) {
+                int aisle = itemAisles[j];
+                if (stamp[aisle] != currentStamp && (state == null || !state.isOpen(aisle))) {
+                    stamp[aisle] = currentStamp;
+                    push(aisle, gain(aisle));
+                }
+            }
+        }
+    }
+
+    /*
+     * Lazy evaluation: rescored aisles go back until the top one keeps its key. -1 when nothing covers anything.
+     */
+    private int popBest() {
+        while (heapSize > 0) {
+            int aisle = heapAisles[0];
+            removeTop();
+            int gain = gain(aisle);
+            if (gain == 0) {
+                continue;
+            }
+            if (heapSize == 0 || gain >= heapKeys[0]) {
+                return aisle;
+            }
+            push(aisle, gain);
+        }
+        return -1;
+    }
+
+    /*
+     * Marks the aisle picked and returns the demand units it covered
+     */
+    private int pick(int aisle) {
+        picked[nPicked++] = aisle;
+        int covered = 0;
+        for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+            int item = aisleItems[k];
+            int used = Math.min(remaining[item], aisleQuantities[k]);
+            remaining[item] -= used;
+            covered += used;
+        }
+        return covered;
+    }
+
+    private int gain(int aisle) {
+        int gain = 0;
+        for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+            gain += Math.min(remaining[aisleItems[k]], aisleQuantities[k]);
+        }
+        return gain;
+    }
+
+    private boolean canDrop(int aisle) {
+        for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+            int item = aisleItems[k];
+            if (demand[item] > 0 && supply[item] - aisleQuantities[k] < demand[item]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void push(int aisle, int key) {
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!before(key, aisle, heapKeys[parent], heapAisles[parent])) {
+                break;
+            }
+            heapAisles[i] = heapAisles[parent];
+            heapKeys[i] = heapKeys[parent];
+            i = parent;
+        }
+        heapAisles[i] = aisle;
+        heapKeys[i] = key;
+    }
+
+    private void removeTop() {
+        int aisle = heapAisles[--heapSize];
+        int key = heapKeys[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heapKeys[child + 1], heapAisles[child + 1], heapKeys[child], heapAisles[child])) {
+                child++;
+            }
+            if (!before(heapKeys[child], heapAisles[child], key, aisle)) {
+                break;
+            }
+            heapAisles[i] = heapAisles[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapAisles[i] = aisle;
+        heapKeys[i] = key;
+    }
+
+    /*
+     * Larger key first, ties by the lower rank so results do not depend on the heap history
+     */
+    private boolean before(int key, int aisle, int otherKey, int otherAisle) {
+        if (key != otherKey) {
+            return key > otherKey;
+        }
+        return rank == null ? aisle < otherAisle : rank[aisle] < rank[otherAisle];
+    }
+}
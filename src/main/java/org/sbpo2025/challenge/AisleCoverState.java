@@ -0,0 +1,168 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/*
+ * Item demand of a set of selected orders against the supply of a set of open aisles, kept up to date
+ * incrementally: adding or removing an order or an aisle costs O(items of that order or aisle).
+ */
+final class AisleCoverState {
+    private final int[] orderStart;
+    private final int[] orderItems;
+    private final int[] orderQuantities;
+    private final int[] orderUnits;
+    private final int[] aisleStart;
+    private final int[] aisleItems;
+    private final int[] aisleQuantities;
+
+    private final int[] demand;
+    private final int[] supply;
+    private final int[] totalSupply;
+    private final BitSet openAisles;
+    private int nOpen = 0;
+    // Items whose demand exceeds the supply of the open aisles
+    private int nShort = 0;
+    private int units = 0;
+
+    AisleCoverState(Instance instance) {
+        this.orderStart = instance.orderStart();
+        this.orderItems = instance.orderItems();
+        this.orderQuantities = instance.orderQuantities();
+        this.orderUnits = instance.orderUnits();
+        this.aisleStart = instance.aisleStart();
+        this.aisleItems = instance.aisleItems();
+        this.aisleQuantities = instance.aisleQuantities();
+
+        int nItems = instance.nItems();
+        this.demand = new int[nItems];
+        this.supply = new int[nItems];
+        this.totalSupply = new int[nItems];
+        this.openAisles = new BitSet(instance.nAisles());
+        for (int k = 0; k < aisleItems.length; k++) {
+            totalSupply[aisleItems[k]] += aisleQuantities[k];
+        }
+    }
+
+    void clear() {
+        Arrays.fill(demand, 0);
+        Arrays.fill(supply, 0);
+        openAisles.clear();
+        nOpen = 0;
+        nShort = 0;
+        units = 0;
+    }
+
+    /*
+     * Whether the order still fits when every aisle is open
+     */
+    boolean fitsAllAisles(int order) {
+        for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+            if (demand[orderItems[k]] + orderQuantities[k] > totalSupply[orderItems[k]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Whether the order fits in the slack (supply - demand) left by the open aisles
+     */
+    boolean fits(int order) {
+        return firstShortItem(order) < 0;
+    }
+
+    /*
+     * First item of the order that does not fit in the slack, -1 if it fits
+     */
+    int firstShortItem(int order) {
+        for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+            if (demand[orderItems[k]] + orderQuantities[k] > supply[orderItems[k]]) {
+                return orderItems[k];
+            }
+        }
+        return -1;
+    }
+
+    void addOrder(int order) {
+        for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+            changeDemand(orderItems[k], orderQuantities[k]);
+        }
+        units += orderUnits[order];
+    }
+
+    void removeOrder(int order) {
+        for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+            changeDemand(orderItems[k], -orderQuantities[k]);
+        }
+        units -= orderUnits[order];
+    }
+
+    void openAisle(int aisle) {
+        if (!openAisles.get(aisle)) {
+            openAisles.set(aisle);
+            nOpen++;
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                changeSupply(aisleItems[k], aisleQuantities[k]);
+            }
+        }
+    }
+
+    void closeAisle(int aisle) {
+        if (openAisles.get(aisle)) {
+            openAisles.clear(aisle);
+            nOpen--;
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                changeSupply(aisleItems[k], -aisleQuantities[k]);
+            }
+        }
+    }
+
+    /*
+     * Whether the open aisle can be closed keeping every item covered
+     */
+    boolean canClose(int aisle) {
+        for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+            if (supply[aisleItems[k]] - aisleQuantities[k] < demand[aisleItems[k]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void changeDemand(int item, int delta) {
+        boolean wasShort = demand[item] > supply[item];
+        demand[item] += delta;
+        nShort += (demand[item] > supply[item] ? 1 : 0) - (wasShort ? 1 : 0);
+    }
+
+    private void changeSupply(int item, int delta) {
+        boolean wasShort = demand[item] > supply[item];
+        supply[item] += delta;
+        nShort += (demand[item] > supply[item] ? 1 : 0) - (wasShort ? 1 : 0);
+    }
+
+    boolean isCovered() {
+        return nShort == 0;
+    }
+
+    int deficit(int item) {
+        return demand[item] - supply[item];
+    }
+
+    boolean isOpen(int aisle) {
+        return openAisles.get(aisle);
+    }
+
+    int nOpen() {
+        return nOpen;
+    }
+
+    int units() {
+        return units;
+    }
+
+    BitSet openAisles() {
+        return openAisles;
+    }
+}
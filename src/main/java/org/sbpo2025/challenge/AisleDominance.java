@@ -0,0 +1,229 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Aisle symmetry and dominance:
+ *  - identical aisles (same item -> stock row) collapse into one group, modelled as an integer
+ *    variable counting how many of them are visited
+ *  - group g is dominated by group h when h stocks at least as much of every item of g. Some optimal wave then
+ *    only visits g once every aisle of h is visited (swap a g aisle for an unvisited h aisle otherwise).
+ *    The models state the linear consequence m_h * y_g <= m_g * y_h (y_g <= y_h for single aisles)
+ * Candidate dominators of g are the aisles stocking the rarest item of g (ItemIndex), each checked in
+ * O(row of the candidate) against a dense copy of g's row, so ~500 aisles x 7k items stays cheap.
+ * Disabled with -Dsbpo.dominance=false.
+ */
+public class AisleDominance {
+    // Dominators kept per group, the others are mostly implied through them
+    private static final int MAX_DOMINATORS = 4;
+
+    private final Instance original;
+    private final Instance aggregated;
+    // Original aisles behind each group
+    private final int[][] members;
+    private final double[] upperBounds;
+    // Groups dominating each group
+    private final int[][] dominators;
+
+    public AisleDominance(Instance instance) {
+        this.original = instance;
+        int nAisles = instance.nAisles();
+        int[] aisleStart = instance.aisleStart();
+        int[] aisleItems = instance.aisleItems();
+        int[] aisleQuantities = instance.aisleQuantities();
+        boolean enabled = enabled();
+
+        Integer[] sorted = new Integer[nAisles];
+        for (int a = 0; a < nAisles; a++) {
+            sorted[a] = a;
+        }
+        if (enabled) {
+            Arrays.sort(sorted, (a, b) -> Instance.compareRows(aisleStart, aisleItems, aisleQuantities, a, b));
+        }
+        int[][] groups = new int[nAisles][];
+        int[] groupOf = new int[nAisles];
+        int nGroups = 0;
+        for (int first = 0; first < nAisles; ) {
+            int last = first + 1;
+            while (enabled && last < nAisles
+                    && Instance.compareRows(aisleStart, aisleItems, aisleQuantities, sorted[first], sorted[last]) == 0) {
+                last++;
+            }
+            groups[nGroups] = new int[last - first];
+            for (int k = first; k < last; k++) {
+                groups[nGroups][k - first] = sorted[k];
+                groupOf[sorted[k]] = nGroups;
+            }
+            nGroups++;
+            first = last;
+        }
+
+        if (nGroups == nAisles) {
+            // No identical aisles, keep the original instance (and its item index)
+            for (int a = 0; a < nAisles; a++) {
+                groups[a] = new int[]{a};
+                groupOf[a] = a;
+            }
+            this.aggregated = instance;
+        } else {
+            Instance.Rows rows = new Instance.Rows(nGroups);
+            for (int g = 0; g < nGroups; g++) {
+                int aisle = groups[g][0];
+                for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                    rows.add(aisleItems[k], aisleQuantities[k]);
+                }
+                rows.endRow();
+            }
+            this.aggregated = new Instance(instance.nItems(), instance.waveSizeLB(), instance.waveSizeUB(),
+                    instance.orderStart(), instance.orderItems(), instance.orderQuantities(),
+                    rows.start(), rows.items(), rows.quantities());
+        }
+        this.members = Arrays.copyOf(groups, nGroups);
+        this.upperBounds = new double[nGroups];
+        for (int g = 0; g < nGroups; g++) {
+            upperBounds[g] = members[g].length;
+        }
+        this.dominators = enabled ? findDominators(groupOf) : new int[nGroups][0];
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("sbpo.dominance", "true"));
+    }
+
+    private int[][] findDominators(int[] groupOf) {
+        int nGroups = members.length;
+        int[] aisleStart = original.aisleStart();
+        int[] aisleItems = original.aisleItems();
+        int[] aisleQuantities = original.aisleQuantities();
+        ItemIndex itemIndex = original.itemIndex();
+        int[] itemAisleStart = itemIndex.aisleStart();
+        int[] itemAisles = itemIndex.aisles();
+
+        int[] need = new int[original.nItems()];
+        int[][] found = new int[nGroups][];
+        int[] buffer = new int[MAX_DOMINATORS];
+        for (int g = 0; g < nGroups; g++) {
+            int aisle = members[g][0];
+            int length = aisleStart[aisle + 1] - aisleStart[aisle];
+            int rarest = -1;
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                int item = aisleItems[k];
+                need[item] = aisleQuantities[k];
+                if (rarest < 0 || itemAisleStart[item + 1] - itemAisleStart[item]
+                        < itemAisleStart[rarest + 1] - itemAisleStart[rarest]) {
+                    rarest = item;
+                }
+            }
+
+            int nFound = 0;
+            if (rarest >= 0) {
+                for (int j = itemAisleStart[rarest]; j < itemAisleStart[rarest + 1] && nFound < MAX_DOMINATORS; j++) {
+                    int candidate = itemAisles[j];
+                    int h = groupOf[candidate];
+                    if (h == g || members[h][0] != candidate || aisleStart[candidate + 1] - aisleStart[candidate] < length) {
+                        continue;
+                    }
+                    int covered = 0;
+                    for (int k = aisleStart[candidate]; k < aisleStart[candidate + 1]; k++) {
+                        if (need[aisleItems[k]] > 0 && aisleQuantities[k] >= need[aisleItems[k]]) {
+                            covered++;
+                        }
+                    }
+                    if (covered == length) {
+                        buffer[nFound++] = h;
+                    }
+                }
+            }
+            found[g] = Arrays.copyOf(buffer, nFound);
+
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                need[aisleItems[k]] = 0;
+            }
+        }
+        return found;
+    }
+
+    /*
+     * Instance with one aisle row per group, orders unchanged
+     */
+    public Instance aggregated() {
+        return aggregated;
+    }
+
+    public boolean isIdentity() {
+        return aggregated == original;
+    }
+
+    /*
+     * Number of identical aisles of each group
+     */
+    public double[] upperBounds() {
+        return upperBounds;
+    }
+
+    /*
+     * Groups dominating group g (at most MAX_DOMINATORS)
+     */
+    public int[] dominators(int g) {
+        return dominators[g];
+    }
+
+    /*
+     * Original aisles selected by the group values: the first round(value) members of each group
+     */
+    public Set<Integer> expand(double[] values) {
+        Set<Integer> aisles = new HashSet<>();
+        for (int g = 0; g < values.length; g++) {
+            int count = (int) Math.round(values[g]);
+            for (int k = 0; k < count && k < members[g].length; k++) {
+                aisles.add(members[g][k]);
+            }
+        }
+        return aisles;
+    }
+
+    /*
+     * Group values visiting the given original aisles, the inverse of expand(). Visits of a dominated group
+     * that break m_h * y_g <= m_g * y_h move to its dominator (same cover, same number of aisles),
+     * so the values satisfy the dominance rows of the models.
+     */
+    public double[] compress(Set<Integer> aisles) {
+        double[] values = new double[members.length];
+        for (int g = 0; g < members.length; g++) {
+            for (int aisle : members[g]) {
+                if (aisles.contains(aisle)) {
+                    values[g]++;
+                }
+            }
+        }
+        // Visits only move up the dominance order, a pass per group is enough
+        boolean moved = true;
+        for (int pass = 0; moved && pass < members.length; pass++) {
+            moved = false;
+            for (int g = 0; g < members.length; g++) {
+                for (int h : dominators[g]) {
+                    while (values[g] > 0 && values[h] < upperBounds[h]
+                            && upperBounds[h] * values[g] > upperBounds[g] * values[h]) {
+                        values[g]--;
+                        values[h]++;
+                        moved = true;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    public String report() {
+        int dominated = 0;
+        int pairs = 0;
+        for (int[] d : dominators) {
+            dominated += d.length > 0 ? 1 : 0;
+            pairs += d.length;
+        }
+        return "Aisle groups " + original.nAisles() + " -> " + aggregated.nAisles()
+                + ", dominated " + dominated + " (" + pairs + " pairs)";
+    }
+}
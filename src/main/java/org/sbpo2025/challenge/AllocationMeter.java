@@ -0,0 +1,79 @@
+package org.sbpo2025.challenge;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Heap counters for SolverTrace spans:
+ *  - bytes allocated by the current thread (com.sun.management.ThreadMXBean), so work a phase hands to other
+ *    threads (common pool, MIP threads) is not counted, and native CPLEX memory never is
+ *  - heap used right after the last collection of each heap pool, the live set the phase left behind
+ *  - collection count and accumulated collection time over all collectors
+ * Every method returns -1 when the JVM does not provide the counter.
+ */
+final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = heapPools();
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private AllocationMeter() {
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    static long threadAllocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    static long heapAfterGcBytes() {
+        if (HEAP_POOLS.isEmpty()) {
+            return -1;
+        }
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                bytes += usage.getUsed();
+            }
+        }
+        return bytes;
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+}
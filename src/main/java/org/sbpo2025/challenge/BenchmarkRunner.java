@@ -0,0 +1,243 @@
+package org.sbpo2025.challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+/*
+ * Solves every .txt instance of a folder, one after the other, with the solver of the main entry point
+ * (same system properties) and a budget of budgetSeconds per instance (-Dsbpo.timeLimit).
+ * Per instance it records parse time, MIP model build time, time to the first solution, objective,
+ * gap to the best proven ratio bound, status and peak heap, and writes them as a JSON report
+ * (one instance object per line). Given a baseline report, instances whose objective dropped or whose
+ * times grew by more than threshold (relative) are flagged, and the exit status is 1.
+ * Usage: java -cp target/ChallengeSBPO2025-1.0.jar org.sbpo2025.challenge.BenchmarkRunner
+ *            <inputFolder> <report.json> [budgetSeconds] [baseline.json] [threshold]
+ */
+public class BenchmarkRunner {
+    // Times below this many seconds apart are noise, whatever the relative change
+    private static final double TIME_SLACK = 0.5;
+
+    record RunReport(String name, String status, double objective, double gap, double parseSeconds,
+                     double modelBuildSeconds, double firstIncumbentSeconds, double totalSeconds, double peakHeapMb) {
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"name\": \"%s\", \"status\": \"%s\", \"objective\": %s, \"gap\": %s, \"parseSeconds\": %s, "
+                            + "\"modelBuildSeconds\": %s, \"firstIncumbentSeconds\": %s, \"totalSeconds\": %s, \"peakHeapMb\": %s}",
+                    name, status, number(objective), number(gap), number(parseSeconds), number(modelBuildSeconds),
+                    number(firstIncumbentSeconds), number(totalSeconds), number(peakHeapMb));
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: BenchmarkRunner <inputFolder> <report.json> [budgetSeconds] [baseline.json] [threshold]");
+            return;
+        }
+        long budget = args.length > 2 ? Long.parseLong(args[2]) : 60;
+        double threshold = args.length > 4 ? Double.parseDouble(args[4]) : 0.05;
+        System.setProperty("sbpo.timeLimit", String.valueOf(budget));
+
+        File[] inputFiles = new File(args[0]).listFiles((dir, name) -> name.endsWith(".txt"));
+        if (inputFiles == null) {
+            System.err.println("Input folder not found: " + args[0]);
+            return;
+        }
+        Arrays.sort(inputFiles);
+
+        List<RunReport> reports = new ArrayList<>();
+        for (File inputFile : inputFiles) {
+            System.out.println("Running " + inputFile.getName());
+            reports.add(run(inputFile));
+        }
+
+        try {
+            writeReport(Path.of(args[1]), budget, reports);
+            System.out.println("Report written to " + args[1]);
+        } catch (IOException e) {
+            System.err.println("Error writing report to " + args[1]);
+            e.printStackTrace();
+        }
+        print(reports);
+
+        if (args.length > 3) {
+            try {
+                int regressions = compare(reports, readReport(Path.of(args[3])), threshold);
+                System.out.println(regressions + " regression(s) against " + args[3]);
+                if (regressions > 0) {
+                    System.exit(1);
+                }
+            } catch (IOException e) {
+                System.err.println("Error reading baseline " + args[3]);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static RunReport run(File inputFile) {
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+        }
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        String name = inputFile.getName();
+        long start = System.nanoTime();
+        StopWatch stopWatch = StopWatch.createStarted();
+        try {
+            Challenge challenge = new Challenge();
+            challenge.loadInput(inputFile.getPath());
+            double parseSeconds = (System.nanoTime() - start) / 1e9;
+            Instance instance = challenge.getInstance();
+            if (instance == null) {
+                return new RunReport(name, "error", Double.NaN, Double.NaN, parseSeconds,
+                        0, Double.NaN, parseSeconds, peakHeapMb(heapPools));
+            }
+
+            IncumbentHolder incumbentHolder = new IncumbentHolder();
+            ChallengeSolution solution = Challenge.solve(instance, stopWatch, incumbentHolder);
+            double totalSeconds = (System.nanoTime() - start) / 1e9;
+
+            SolutionEvaluator evaluator = new SolutionEvaluator(instance);
+            boolean feasible = solution != null && evaluator.isFeasible(solution);
+            double objective = feasible ? evaluator.objective(solution) : Double.NaN;
+            String status;
+            if (solution == null || solution.orders() == null || solution.orders().isEmpty()) {
+                status = "no solution";
+            } else if (!feasible) {
+                status = "infeasible";
+            } else {
+                status = incumbentHolder.isProvenOptimal() ? "optimal" : "feasible";
+            }
+            double gap = Double.NaN;
+            if (status.equals("optimal")) {
+                gap = 0;
+            } else if (feasible && incumbentHolder.upperBound() != Double.POSITIVE_INFINITY) {
+                gap = Math.max(0, incumbentHolder.upperBound() - objective) / (1e-10 + objective);
+            }
+            long first = incumbentHolder.firstIncumbentNanos();
+            double firstIncumbentSeconds = first == Long.MIN_VALUE ? Double.NaN : (first - start) / 1e9;
+            return new RunReport(name, status, objective, gap, parseSeconds, incumbentHolder.modelBuildSeconds(),
+                    firstIncumbentSeconds, totalSeconds, peakHeapMb(heapPools));
+        } catch (RuntimeException e) {
+            System.err.println("Execution failed for " + inputFile.getPath());
+            e.printStackTrace();
+            double totalSeconds = (System.nanoTime() - start) / 1e9;
+            return new RunReport(name, "error", Double.NaN, Double.NaN, Double.NaN,
+                    Double.NaN, Double.NaN, totalSeconds, peakHeapMb(heapPools));
+        }
+    }
+
+    private static double peakHeapMb(List<MemoryPoolMXBean> heapPools) {
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            bytes += pool.getPeakUsage().getUsed();
+        }
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    private static void writeReport(Path path, long budget, List<RunReport> reports) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"budgetSeconds\": ").append(budget).append(",\n  \"instances\": [\n");
+        for (int i = 0; i < reports.size(); i++) {
+            json.append("    ").append(reports.get(i).toJson()).append(i + 1 < reports.size() ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+        Files.writeString(path, json);
+    }
+
+    /*
+     * Reads back a report written by writeReport (one instance object per line), keyed by instance name
+     */
+    static Map<String, RunReport> readReport(Path path) throws IOException {
+        Map<String, RunReport> reports = new HashMap<>();
+        for (String line : Files.readAllLines(path)) {
+            String name = field(line, "name");
+            if (name == null) {
+                continue;
+            }
+            reports.put(name, new RunReport(name, field(line, "status"), value(line, "objective"), value(line, "gap"),
+                    value(line, "parseSeconds"), value(line, "modelBuildSeconds"), value(line, "firstIncumbentSeconds"),
+                    value(line, "totalSeconds"), value(line, "peakHeapMb")));
+        }
+        return reports;
+    }
+
+    private static String field(String line, String key) {
+        Matcher matcher = Pattern.compile("\"" + key + "\": \"([^\"]*)\"").matcher(line);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static double value(String line, String key) {
+        Matcher matcher = Pattern.compile("\"" + key + "\": (null|[-0-9.eE]+)").matcher(line);
+        if (!matcher.find() || matcher.group(1).equals("null")) {
+            return Double.NaN;
+        }
+        return Double.parseDouble(matcher.group(1));
+    }
+
+    private static void print(List<RunReport> reports) {
+        System.out.printf("%-24s %-12s %12s %8s %9s %9s %9s %9s %10s%n", "instance", "status", "objective", "gap",
+                "parse(s)", "build(s)", "first(s)", "total(s)", "heap(MB)");
+        for (RunReport report : reports) {
+            System.out.printf(Locale.ROOT, "%-24s %-12s %12.4f %8.4f %9.3f %9.3f %9.3f %9.3f %10.1f%n",
+                    report.name(), report.status(), report.objective(), report.gap(), report.parseSeconds(),
+                    report.modelBuildSeconds(), report.firstIncumbentSeconds(), report.totalSeconds(), report.peakHeapMb());
+        }
+    }
+
+    /*
+     * Prints one line per regression and returns how many were found
+     */
+    private static int compare(List<RunReport> reports, Map<String, RunReport> baseline, double threshold) {
+        int regressions = 0;
+        for (RunReport report : reports) {
+            RunReport base = baseline.get(report.name());
+            if (base == null) {
+                continue;
+            }
+            if (!Double.isNaN(base.objective())
+                    && (Double.isNaN(report.objective()) || report.objective() < base.objective() * (1 - threshold))) {
+                System.out.printf(Locale.ROOT, "REGRESSION %s objective %.4f -> %.4f%n",
+                        report.name(), base.objective(), report.objective());
+                regressions++;
+            }
+            regressions += compareTime(report.name(), "total time", base.totalSeconds(), report.totalSeconds(), threshold);
+            regressions += compareTime(report.name(), "first solution", base.firstIncumbentSeconds(),
+                    report.firstIncumbentSeconds(), threshold);
+        }
+        return regressions;
+    }
+
+    private static int compareTime(String name, String what, double base, double current, double threshold) {
+        if (Double.isNaN(base) || Double.isNaN(current)) {
+            return 0;
+        }
+        if (current > base * (1 + threshold) && current - base > TIME_SLACK) {
+            System.out.printf(Locale.ROOT, "REGRESSION %s %s %.3fs -> %.3fs%n", name, what, base, current);
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,506 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Pure Java MipBackend: depth-first branch and bound over a dense two-phase simplex.
+ * Only meant for small instances and for running the solvers on machines without CPLEX (-Dsbpo.mip=java):
+ * each relaxation builds a dense (2 * constraints + variables) x (variables + rows) tableau, which on the
+ * challenge instances takes too long or does not fit in memory. The time limit is checked at every pivot.
+ * Nodes pruned by the gap tolerance keep their relaxation bound, so the reported best bound stays valid
+ * when the tolerance is loose.
+ */
+public class BranchAndBoundBackend implements MipBackend {
+    private static final double EPS = 1e-9;
+    private static final double INTEGRALITY = 1e-6;
+
+    private double[] lower = new double[0];
+    private double[] upper = new double[0];
+    private boolean[] integer = new boolean[0];
+    private double[] objective = new double[0];
+    private int nVariables = 0;
+
+    private final Map<Integer, Row> constraints = new LinkedHashMap<>();
+    private int nextHandle = 0;
+    private double gapTolerance = 1e-4;
+
+    private double[] incumbent = null;
+    private double incumbentValue = Double.NEGATIVE_INFINITY;
+    private double bestBound = Double.POSITIVE_INFINITY;
+    private double[] start = null;
+    private double timeToFirstIncumbent = Double.NaN;
+    private volatile boolean aborted = false;
+    // Deadline of the running solve, checked between pivots
+    private long deadline = Long.MAX_VALUE;
+    private boolean relaxationTimedOut = false;
+
+    private record Row(int[] vars, double[] coefficients, double lb, double ub) {
+    }
+
+    private record Node(double[] lower, double[] upper) {
+    }
+
+    @Override
+    public int[] addVariables(int count, double lb, double ub, boolean isInteger) {
+        int capacity = nVariables + count;
+        if (capacity > lower.length) {
+            capacity = Math.max(capacity, 2 * lower.length);
+            lower = Arrays.copyOf(lower, capacity);
+            upper = Arrays.copyOf(upper, capacity);
+            integer = Arrays.copyOf(integer, capacity);
+            objective = Arrays.copyOf(objective, capacity);
+        }
+        int[] indexes = new int[count];
+        for (int k = 0; k < count; k++) {
+            lower[nVariables] = lb;
+            upper[nVariables] = ub;
+            integer[nVariables] = isInteger;
+            objective[nVariables] = 0;
+            indexes[k] = nVariables++;
+        }
+        return indexes;
+    }
+
+    @Override
+    public int addConstraint(int[] vars, double[] coefficients, double lb, double ub) {
+        constraints.put(nextHandle, new Row(vars.clone(), coefficients.clone(), lb, ub));
+        return nextHandle++;
+    }
+
+    @Override
+    public void removeConstraint(int handle) {
+        if (constraints.remove(handle) == null) {
+            throw new MipBackendException("Unknown constraint " + handle);
+        }
+    }
+
+    @Override
+    public void setObjective(int[] vars, double[] coefficients) {
+        Arrays.fill(objective, 0);
+        for (int k = 0; k < vars.length; k++) {
+            objective[vars[k]] += coefficients[k];
+        }
+    }
+
+    @Override
+    public void setObjectiveCoefficients(int[] vars, double[] coefficients) {
+        for (int k = 0; k < vars.length; k++) {
+            objective[vars[k]] = coefficients[k];
+        }
+    }
+
+    @Override
+    public void setRelativeGapTolerance(double gap) {
+        gapTolerance = gap;
+    }
+
+    // Single threaded, silent, depth-first (small tree) and primal simplex at every node: no tuning to apply
+
+    @Override
+    public void setThreads(int threads) {
+    }
+
+    @Override
+    public void setQuiet(boolean quiet) {
+    }
+
+    @Override
+    public void setTreeMemoryLimit(int megabytes) {
+    }
+
+    @Override
+    public void useDualSimplexAtRoot() {
+    }
+
+    @Override
+    public Status solve(double timeLimitSeconds) {
+        long startTime = System.nanoTime();
+        deadline = startTime + (long) (Math.max(0, timeLimitSeconds) * 1e9);
+        relaxationTimedOut = false;
+        incumbent = null;
+        incumbentValue = Double.NEGATIVE_INFINITY;
+        bestBound = Double.POSITIVE_INFINITY;
+        timeToFirstIncumbent = Double.NaN;
+        if (start != null && isFeasible(start)) {
+            incumbent = start.clone();
+            incumbentValue = value(incumbent);
+            timeToFirstIncumbent = (System.nanoTime() - startTime) / 1e9;
+        }
+
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(new Node(Arrays.copyOf(lower, nVariables), Arrays.copyOf(upper, nVariables)));
+        boolean rootSolved = false;
+        boolean timedOut = false;
+        // Largest relaxation bound among the nodes pruned within the gap tolerance of the incumbent
+        double prunedBound = Double.NEGATIVE_INFINITY;
+        while (!stack.isEmpty()) {
+            if (System.nanoTime() > deadline || aborted) {
+                timedOut = true;
+                break;
+            }
+            Node node = stack.pop();
+            double[] x = solveRelaxation(node.lower, node.upper);
+            if (relaxationTimedOut) {
+                timedOut = true;
+                break;
+            }
+            if (!rootSolved) {
+                rootSolved = true;
+                bestBound = x == null ? Double.NEGATIVE_INFINITY : value(x);
+            }
+            if (x == null) {
+                continue;
+            }
+            double bound = value(x);
+            if (incumbent != null && bound <= incumbentValue + tolerance(incumbentValue)) {
+                prunedBound = Math.max(prunedBound, bound);
+                continue;
+            }
+
+            int branch = -1;
+            double mostFractional = INTEGRALITY;
+            for (int j = 0; j < nVariables; j++) {
+                if (integer[j]) {
+                    double fractional = Math.abs(x[j] - Math.rint(x[j]));
+                    if (fractional > mostFractional) {
+                        mostFractional = fractional;
+                        branch = j;
+                    }
+                }
+            }
+            if (branch < 0) {
+                for (int j = 0; j < nVariables; j++) {
+                    if (integer[j]) {
+                        x[j] = Math.rint(x[j]);
+                    }
+                }
+                if (incumbent == null) {
+                    timeToFirstIncumbent = (System.nanoTime() - startTime) / 1e9;
+                }
+                incumbent = x;
+                incumbentValue = value(x);
+                continue;
+            }
+
+            // Explore the rounded-up child first, it tends to reach incumbents sooner on covering models
+            double[] downUpper = node.upper.clone();
+            downUpper[branch] = Math.floor(x[branch]);
+            stack.push(new Node(node.lower.clone(), downUpper));
+            double[] upLower = node.lower.clone();
+            upLower[branch] = Math.ceil(x[branch]);
+            stack.push(new Node(upLower, node.upper.clone()));
+        }
+
+        if (!timedOut) {
+            if (incumbent == null) {
+                bestBound = Double.NEGATIVE_INFINITY;
+                return Status.INFEASIBLE;
+            }
+            bestBound = Math.max(incumbentValue, prunedBound);
+            return bestBound - incumbentValue <= tolerance(incumbentValue) ? Status.OPTIMAL : Status.FEASIBLE;
+        }
+        return incumbent != null ? Status.FEASIBLE : Status.UNKNOWN;
+    }
+
+    @Override
+    public void setMipStart(int[] vars, double[] values) {
+        // Variables left out of the start keep their lower bound
+        start = Arrays.copyOf(lower, nVariables);
+        for (int k = 0; k < vars.length; k++) {
+            start[vars[k]] = values[k];
+        }
+    }
+
+    private boolean isFeasible(double[] x) {
+        if (x.length != nVariables) {
+            return false;
+        }
+        for (int j = 0; j < nVariables; j++) {
+            if (x[j] < lower[j] - INTEGRALITY || x[j] > upper[j] + INTEGRALITY
+                    || (integer[j] && Math.abs(x[j] - Math.rint(x[j])) > INTEGRALITY)) {
+                return false;
+            }
+        }
+        for (Row row : constraints.values()) {
+            double activity = 0;
+            for (int k = 0; k < row.vars.length; k++) {
+                activity += row.coefficients[k] * x[row.vars[k]];
+            }
+            if (activity < row.lb - INTEGRALITY || activity > row.ub + INTEGRALITY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double tolerance(double value) {
+        return Math.max(INTEGRALITY, gapTolerance * Math.abs(value));
+    }
+
+    private double value(double[] x) {
+        double total = 0;
+        for (int j = 0; j < nVariables; j++) {
+            total += objective[j] * x[j];
+        }
+        return total;
+    }
+
+    @Override
+    public double getObjectiveValue() {
+        requireIncumbent();
+        return incumbentValue;
+    }
+
+    @Override
+    public double getRelativeGap() {
+        requireIncumbent();
+        return Math.max(0, bestBound - incumbentValue) / (1e-10 + Math.abs(incumbentValue));
+    }
+
+    @Override
+    public double getBestBound() {
+        return bestBound;
+    }
+
+    @Override
+    public double getTimeToFirstIncumbent() {
+        return timeToFirstIncumbent;
+    }
+
+    @Override
+    public double[] getValues(int[] vars) {
+        requireIncumbent();
+        double[] values = new double[vars.length];
+        for (int k = 0; k < vars.length; k++) {
+            values[k] = incumbent[vars[k]];
+        }
+        return values;
+    }
+
+    private void requireIncumbent() {
+        if (incumbent == null) {
+            throw new MipBackendException("No solution available");
+        }
+    }
+
+    @Override
+    public void abort() {
+        aborted = true;
+    }
+
+    @Override
+    public void close() {
+        constraints.clear();
+        incumbent = null;
+        start = null;
+    }
+
+    /*
+     * Solves max c.x over the constraints and lo <= x <= up, returns null when infeasible or unbounded,
+     * or when the deadline passed (relaxationTimedOut is then set).
+     * Variables are shifted to y = x - lo >= 0, finite upper bounds become rows.
+     */
+    private double[] solveRelaxation(double[] lo, double[] up) {
+        int n = nVariables;
+        for (int j = 0; j < n; j++) {
+            if (lo[j] > up[j] + EPS) {
+                return null;
+            }
+        }
+
+        int maxRows = 2 * constraints.size() + n;
+        double[][] rows = new double[maxRows][];
+        double[] rhs = new double[maxRows];
+        boolean[] greater = new boolean[maxRows];
+        int m = 0;
+        for (Row row : constraints.values()) {
+            double[] a = new double[n];
+            double shift = 0;
+            for (int k = 0; k < row.vars.length; k++) {
+                a[row.vars[k]] += row.coefficients[k];
+                shift += row.coefficients[k] * lo[row.vars[k]];
+            }
+            if (row.ub < INFINITY) {
+                rows[m] = a;
+                rhs[m] = row.ub - shift;
+                greater[m++] = false;
+            }
+            if (row.lb > -INFINITY) {
+                rows[m] = row.ub < INFINITY ? a.clone() : a;
+                rhs[m] = row.lb - shift;
+                greater[m++] = true;
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            if (up[j] < INFINITY) {
+                double[] a = new double[n];
+                a[j] = 1;
+                rows[m] = a;
+                rhs[m] = up[j] - lo[j];
+                greater[m++] = false;
+            }
+        }
+
+        // Normalize to non-negative right hand sides, every >= row needs an artificial
+        int nArtificial = 0;
+        for (int i = 0; i < m; i++) {
+            if (rhs[i] < 0) {
+                for (int j = 0; j < n; j++) {
+                    rows[i][j] = -rows[i][j];
+                }
+                rhs[i] = -rhs[i];
+                greater[i] = !greater[i];
+            }
+            if (greater[i]) {
+                nArtificial++;
+            }
+        }
+
+        int slackStart = n;
+        int artificialStart = n + m;
+        int columns = n + m + nArtificial;
+        double[][] tableau = new double[m][columns + 1];
+        int[] basis = new int[m];
+        int artificial = artificialStart;
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(rows[i], 0, tableau[i], 0, n);
+            tableau[i][columns] = rhs[i];
+            if (greater[i]) {
+                tableau[i][slackStart + i] = -1;
+                tableau[i][artificial] = 1;
+                basis[i] = artificial++;
+            } else {
+                tableau[i][slackStart + i] = 1;
+                basis[i] = slackStart + i;
+            }
+        }
+
+        // Phase one: maximize -sum(artificials)
+        if (nArtificial > 0) {
+            double[] cost = new double[columns];
+            Arrays.fill(cost, artificialStart, columns, -1);
+            if (!simplex(tableau, basis, cost, columns, columns)) {
+                return null;
+            }
+            double infeasibility = 0;
+            for (int i = 0; i < m; i++) {
+                if (basis[i] >= artificialStart) {
+                    infeasibility += tableau[i][columns];
+                }
+            }
+            if (infeasibility > 1e-7) {
+                return null;
+            }
+            // Drive zero-valued artificials out of the basis where possible
+            for (int i = 0; i < m; i++) {
+                if (basis[i] >= artificialStart) {
+                    for (int j = 0; j < artificialStart; j++) {
+                        if (Math.abs(tableau[i][j]) > EPS) {
+                            pivot(tableau, basis, i, j, columns);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Phase two: the real objective, artificial columns may not enter
+        double[] cost = new double[columns];
+        System.arraycopy(objective, 0, cost, 0, n);
+        if (!simplex(tableau, basis, cost, artificialStart, columns)) {
+            return null;
+        }
+
+        double[] x = Arrays.copyOf(lo, n);
+        for (int i = 0; i < m; i++) {
+            if (basis[i] < n) {
+                x[basis[i]] += tableau[i][columns];
+            }
+        }
+        return x;
+    }
+
+    /*
+     * Primal simplex on a tableau already in canonical form for basis. Only columns below
+     * enterLimit may enter. Returns false when unbounded, or with relaxationTimedOut set at the deadline.
+     */
+    private boolean simplex(double[][] tableau, int[] basis, double[] cost, int enterLimit, int columns) {
+        int m = basis.length;
+        double[] reduced = new double[enterLimit];
+        int blandAfter = 50 * (m + columns);
+        for (int iteration = 0; ; iteration++) {
+            if (System.nanoTime() > deadline || aborted) {
+                relaxationTimedOut = true;
+                return false;
+            }
+            // Reduced costs c_j - c_B B^-1 A_j
+            System.arraycopy(cost, 0, reduced, 0, enterLimit);
+            for (int i = 0; i < m; i++) {
+                double cb = cost[basis[i]];
+                if (cb != 0) {
+                    double[] row = tableau[i];
+                    for (int j = 0; j < enterLimit; j++) {
+                        reduced[j] -= cb * row[j];
+                    }
+                }
+            }
+
+            // Dantzig's rule, Bland's rule after many iterations to escape cycling
+            int entering = -1;
+            double best = EPS;
+            for (int j = 0; j < enterLimit; j++) {
+                if (reduced[j] > best) {
+                    entering = j;
+                    if (iteration >= blandAfter) {
+                        break;
+                    }
+                    best = reduced[j];
+                }
+            }
+            if (entering < 0) {
+                return true;
+            }
+
+            int leaving = -1;
+            double ratio = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < m; i++) {
+                double a = tableau[i][entering];
+                if (a > EPS) {
+                    double r = tableau[i][columns] / a;
+                    if (r < ratio - EPS || (r < ratio + EPS && leaving >= 0 && basis[i] < basis[leaving])) {
+                        ratio = r;
+                        leaving = i;
+                    }
+                }
+            }
+            if (leaving < 0) {
+                return false;
+            }
+            pivot(tableau, basis, leaving, entering, columns);
+        }
+    }
+
+    private static void pivot(double[][] tableau, int[] basis, int r, int c, int columns) {
+        double[] pivotRow = tableau[r];
+        double p = pivotRow[c];
+        for (int j = 0; j <= columns; j++) {
+            pivotRow[j] /= p;
+        }
+        for (int i = 0; i < tableau.length; i++) {
+            if (i != r) {
+                double[] row = tableau[i];
+                double factor = row[c];
+                if (factor != 0) {
+                    for (int j = 0; j <= columns; j++) {
+                        row[j] -= factor * pivotRow[j];
+                    }
+                }
+            }
+        }
+        basis[r] = c;
+    }
+}
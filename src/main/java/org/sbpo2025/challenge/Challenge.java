@@ -2,71 +2,92 @@ package org.sbpo2025.challenge;
 
 import org.apache.commons.lang3.time.StopWatch;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Challenge {
+    private static final long LOCAL_SEARCH_RESERVE = 5; // seconds
 
-    private List<Map<Integer, Integer>> orders;
-    private List<Map<Integer, Integer>> aisles;
-    private int nItems;
-    private int waveSizeLB;
-    private int waveSizeUB;
+    private Instance instance;
 
     public void readInput(String inputFilePath) {
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(inputFilePath));
-            String line = reader.readLine();
-            String[] firstLine = line.split(" ");
-            int nOrders = Integer.parseInt(firstLine[0]);
-            int nItems = Integer.parseInt(firstLine[1]);
-            int nAisles = Integer.parseInt(firstLine[2]);
-
-            // Initialize orders and aisles arrays
-            orders = new ArrayList<>(nOrders);
-            aisles = new ArrayList<>(nAisles);
-            this.nItems = nItems;
+            MappedInputReader reader = MappedInputReader.open(Path.of(inputFilePath));
+            int nOrders = reader.nextInt();
+            int nItems = reader.nextInt();
+            int nAisles = reader.nextInt();
 
             // Read orders
-            readItemQuantityPairs(reader, nOrders, orders);
+            Instance.Rows orderRows = readItemQuantityPairs(reader, nOrders);
 
             // Read aisles
-            readItemQuantityPairs(reader, nAisles, aisles);
+            Instance.Rows aisleRows = readItemQuantityPairs(reader, nAisles);
 
             // Read wave size bounds
-            line = reader.readLine();
-            String[] bounds = line.split(" ");
-            waveSizeLB = Integer.parseInt(bounds[0]);
-            waveSizeUB = Integer.parseInt(bounds[1]);
+            int waveSizeLB = reader.nextInt();
+            int waveSizeUB = reader.nextInt();
 
-            reader.close();
+            instance = new Instance(nItems, waveSizeLB, waveSizeUB,
+                    orderRows.start(), orderRows.items(), orderRows.quantities(),
+                    aisleRows.start(), aisleRows.items(), aisleRows.quantities());
         } catch (IOException e) {
             System.err.println("Error reading input from " + inputFilePath);
             e.printStackTrace();
         }
     }
 
-    private void readItemQuantityPairs(BufferedReader reader, int nLines, List<Map<Integer, Integer>> orders) throws IOException {
-        String line;
+    /*
+     * Loads the pre-compiled <inputFilePath>.bin when it matches the text file, otherwise parses the text file
+     */
+    public void loadInput(String inputFilePath) {
+        SolverEvents.Parse event = new SolverEvents.Parse();
+        event.begin();
+        SolverTrace.Span span = SolverTrace.start();
+        instance = InstanceCache.loadIfFresh(Path.of(inputFilePath));
+        boolean cached = instance != null;
+        if (!cached) {
+            readInput(inputFilePath);
+        }
+        if (event.shouldCommit() && instance != null) {
+            event.file = inputFilePath;
+            event.cached = cached;
+            event.orders = instance.nOrders();
+            event.items = instance.nItems();
+            event.aisles = instance.nAisles();
+            event.commit();
+        }
+        if (SolverTrace.ENABLED && instance != null) {
+            SolverTrace.line("parse", span).field("file", inputFilePath).field("cached", cached)
+                    .field("orders", instance.nOrders()).field("items", instance.nItems())
+                    .field("aisles", instance.nAisles()).write();
+        }
+    }
+
+    private Instance.Rows readItemQuantityPairs(MappedInputReader reader, int nLines) throws IOException {
+        Instance.Rows rows = new Instance.Rows(nLines);
         for (int orderIndex = 0; orderIndex < nLines; orderIndex++) {
-            line = reader.readLine();
-            String[] orderLine = line.split(" ");
-            int nOrderItems = Integer.parseInt(orderLine[0]);
-            Map<Integer, Integer> orderMap = new HashMap<>();
+            int nOrderItems = reader.nextInt();
             for (int k = 0; k < nOrderItems; k++) {
-                int itemIndex = Integer.parseInt(orderLine[2 * k + 1]);
-                int itemQuantity = Integer.parseInt(orderLine[2 * k + 2]);
-                orderMap.put(itemIndex, itemQuantity);
+                int itemIndex = reader.nextInt();
+                int itemQuantity = reader.nextInt();
+                rows.add(itemIndex, itemQuantity);
             }
-            orders.add(orderMap);
+            rows.endRow();
         }
+        return rows;
     }
 
     public void writeOutput(ChallengeSolution challengeSolution, String outputFilePath) {
@@ -74,8 +95,30 @@ public class Challenge {
             System.err.println("Solution not found");
             return;
         }
+        SolverTrace.Span span = SolverTrace.start();
         try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter(outputFilePath));
+            writeAtomically(challengeSolution, Path.of(outputFilePath));
+            System.out.println("Output written to " + outputFilePath);
+            if (SolverTrace.ENABLED) {
+                SolverTrace.line("output", span).field("file", outputFilePath)
+                        .field("orders", challengeSolution.orders().size())
+                        .field("aisles", challengeSolution.aisles().size()).write();
+            }
+
+        } catch (IOException e) {
+            System.err.println("Error writing output to " + outputFilePath);
+            e.printStackTrace();
+        }
+    }
+
+    /*
+     * Writes the solution to a temporary file next to the output and renames it over the output,
+     * so a reader (or a kill) never sees a half written file
+     */
+    static void writeAtomically(ChallengeSolution challengeSolution, Path outputPath) throws IOException {
+        Path absolute = outputPath.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary)) {
             var orders = challengeSolution.orders();
             var aisles = challengeSolution.aisles();
 
@@ -98,31 +141,247 @@ public class Challenge {
                 writer.write(String.valueOf(aisle));
                 writer.newLine();
             }
+        }
+        moveAtomically(temporary, absolute);
+    }
 
-            writer.close();
-            System.out.println("Output written to " + outputFilePath);
+    /*
+     * Renames source over target, atomically where the file system supports it
+     */
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    Instance getInstance() {
+        return instance;
+    }
+
+    /*
+     * Writes the binary cache next to each given text instance
+     */
+    private static void compileInputs(String[] inputFilePaths) {
+        for (String inputFilePath : inputFilePaths) {
+            Challenge challenge = new Challenge();
+            challenge.readInput(inputFilePath);
+            if (challenge.instance == null) {
+                continue;
+            }
+            try {
+                InstanceCache.write(challenge.instance, Path.of(inputFilePath));
+                System.out.println("Cache written to " + InstanceCache.cachePath(Path.of(inputFilePath)));
+            } catch (IOException e) {
+                System.err.println("Error writing cache for " + inputFilePath);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /*
+     * -Dsbpo.solver=portfolio runs the exact, slice and heuristic solvers concurrently.
+     * Unless the solver proved optimality, LocalSearch then uses the time left (minus a few seconds to write the output).
+     * Both work on the instance reduced by Presolver.
+     */
+    static ChallengeSolution solve(Instance instance, StopWatch stopWatch) {
+        return solve(instance, stopWatch, new IncumbentHolder());
+    }
+
+    /*
+     * The holder collects the solver statistics of the run (BenchmarkRunner) and every improving solution,
+     * in the indexes of the given instance: the solvers of the presolved instance get a holder of their own
+     * whose solutions are mapped back as they come
+     */
+    static ChallengeSolution solve(Instance instance, StopWatch stopWatch, IncumbentHolder incumbentHolder) {
+        if (!Presolver.enabled()) {
+            return solveReduced(instance, stopWatch, incumbentHolder);
+        }
+        SolverTrace.Span span = SolverTrace.start();
+        Presolver presolver = new Presolver(instance);
+        System.out.println(presolver.report());
+        if (SolverTrace.ENABLED) {
+            SolverTrace.line("presolve", span).field("orders", presolver.reduced().nOrders())
+                    .field("aisles", presolver.reduced().nAisles()).field("items", presolver.reduced().nItems()).write();
+        }
+        if (presolver.isIdentity()) {
+            return solveReduced(instance, stopWatch, incumbentHolder);
+        }
+        if (presolver.reduced().nOrders() == 0) {
+            return new ChallengeSolution(new HashSet<>(), new HashSet<>());
+        }
+        IncumbentHolder reducedHolder = new IncumbentHolder();
+        reducedHolder.setListener(incumbent -> incumbentHolder.offer(presolver.restore(incumbent.solution()),
+                incumbent.ratio(), incumbent.source()));
+        ChallengeSolution solution = presolver.restore(solveReduced(presolver.reduced(), stopWatch, reducedHolder));
+        incumbentHolder.absorbStatistics(reducedHolder);
+        incumbentHolder.offerUpperBound(reducedHolder.upperBound());
+        if (reducedHolder.isProvenOptimal()) {
+            incumbentHolder.markOptimal();
+        }
+        return solution;
+    }
+
+    /*
+     * GreedyConstructor gives a first wave in milliseconds, then when the instance splits in several independent
+     * parts, ComponentSolver solves them in parallel (-Dsbpo.decompose=false to always build one model)
+     */
+    private static ChallengeSolution solveReduced(Instance instance, StopWatch stopWatch, IncumbentHolder incumbentHolder) {
+        GreedyConstructor.seed(instance, incumbentHolder);
+        WaveSolver challengeSolver = createSolver(instance);
+        if (Boolean.parseBoolean(System.getProperty("sbpo.decompose", "true"))) {
+            SolverTrace.Span span = SolverTrace.start();
+            ComponentDecomposer decomposer = new ComponentDecomposer(instance);
+            System.out.println(decomposer.report());
+            if (SolverTrace.ENABLED) {
+                SolverTrace.line("components", span).field("parts", decomposer.parts().size())
+                        .field("exact", decomposer.isExact()).write();
+            }
+            if (decomposer.parts().size() > 1) {
+                challengeSolver = new ComponentSolver(instance, decomposer, Challenge::createSolver);
+            }
+        }
+        challengeSolver.setIncumbentHolder(incumbentHolder);
+        SolverTrace.Span solveSpan = SolverTrace.start();
+        ChallengeSolution challengeSolution = challengeSolver.solve(stopWatch);
+        if (SolverTrace.ENABLED) {
+            SolverTrace.line("solve", solveSpan).field("solver", challengeSolver.getClass().getSimpleName())
+                    .field("ratio", incumbentHolder.bestRatio()).field("optimal", incumbentHolder.isProvenOptimal()).write();
+        }
+        // No MIP solution in time leaves the greedy wave as the best one
+        IncumbentHolder.Incumbent best = incumbentHolder.get();
+        SolutionEvaluator evaluator = new SolutionEvaluator(instance);
+        if (best != null && (challengeSolution == null || !evaluator.isFeasible(challengeSolution)
+                || evaluator.objective(challengeSolution) < best.ratio())) {
+            challengeSolution = best.solution();
+        }
+        if (LocalSearch.enabled() && !incumbentHolder.isProvenOptimal()) {
+            SolverTrace.Span span = SolverTrace.start();
+            LocalSearch localSearch = new LocalSearch(instance);
+            localSearch.setIncumbentHolder(incumbentHolder);
+            challengeSolution = localSearch.improve(challengeSolution, stopWatch, LOCAL_SEARCH_RESERVE);
+            SolverTrace.phase("local search", span);
+        }
+        return challengeSolution;
+    }
+
+    private static WaveSolver createSolver(Instance instance) {
+        return "portfolio".equals(System.getProperty("sbpo.solver"))
+                ? new PortfolioSolver(instance)
+                : new ChallengeSolver(instance);
+    }
 
+    private static void solveFile(String inputFilePath, String outputFilePath, StopWatch stopWatch) {
+        Challenge challenge = new Challenge();
+        challenge.loadInput(inputFilePath);
+        if (challenge.instance == null) {
+            return;
+        }
+        IncumbentHolder incumbentHolder = new IncumbentHolder();
+        if (!IncumbentSink.enabled()) {
+            challenge.writeOutput(solve(challenge.instance, stopWatch, incumbentHolder), outputFilePath);
+            return;
+        }
+        ChallengeSolution challengeSolution;
+        try (IncumbentSink sink = new IncumbentSink(challenge.instance, Path.of(outputFilePath))) {
+            incumbentHolder.setListener(sink);
+            challengeSolution = sink.best(solve(challenge.instance, stopWatch, incumbentHolder));
+        }
+
+        challenge.writeOutput(challengeSolution, outputFilePath);
+    }
+
+    /*
+     * Solves every .txt instance of inputFolder inside this JVM, up to parallelism instances at a time.
+     * Each instance gets its own stopwatch, started when its turn comes.
+     */
+    private static void solveFolder(String inputFolder, String outputFolder, int parallelism) {
+        File[] inputFiles = new File(inputFolder).listFiles((dir, name) -> name.endsWith(".txt"));
+        if (inputFiles == null) {
+            System.err.println("Input folder not found: " + inputFolder);
+            return;
+        }
+        Arrays.sort(inputFiles);
+        try {
+            Files.createDirectories(Path.of(outputFolder));
         } catch (IOException e) {
-            System.err.println("Error writing output to " + outputFilePath);
+            System.err.println("Error creating output folder " + outputFolder);
             e.printStackTrace();
+            return;
         }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        List<Future<?>> pending = new ArrayList<>();
+        for (File inputFile : inputFiles) {
+            String outputFilePath = Path.of(outputFolder, inputFile.getName()).toString();
+            pending.add(executor.submit(() -> {
+                System.out.println("Running " + inputFile.getName());
+                solveFile(inputFile.getPath(), outputFilePath, StopWatch.createStarted());
+            }));
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            try {
+                pending.get(i).get();
+            } catch (ExecutionException e) {
+                System.err.println("Execution failed for " + inputFiles[i].getPath());
+                e.getCause().printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java -jar target/ChallengeSBPO2025-1.0.jar <inputFilePath> <outputFilePath>");
+        System.out.println("       java -jar target/ChallengeSBPO2025-1.0.jar compile <inputFilePath>...");
+        System.out.println("       java -jar target/ChallengeSBPO2025-1.0.jar batch <inputFolder> <outputFolder> [--parallel <n>]");
+        System.out.println("       java -jar target/ChallengeSBPO2025-1.0.jar validate <inputFolder> <outputFolder> [--parallel <n>]");
     }
 
     public static void main(String[] args) {
         // Start the stopwatch to track the running time
         StopWatch stopWatch = StopWatch.createStarted();
 
-        if (args.length != 2) {
-            System.out.println("Usage: java -jar target/ChallengeSBPO2025-1.0.jar <inputFilePath> <outputFilePath>");
+        if (args.length >= 2 && args[0].equals("compile")) {
+            compileInputs(Arrays.copyOfRange(args, 1, args.length));
             return;
         }
 
-        Challenge challenge = new Challenge();
-        challenge.readInput(args[0]);
-        var challengeSolver = new ChallengeSolver(
-                challenge.orders, challenge.aisles, challenge.nItems, challenge.waveSizeLB, challenge.waveSizeUB);
-        ChallengeSolution challengeSolution = challengeSolver.solve(stopWatch);
+        if (args.length >= 3 && args[0].equals("batch")) {
+            int parallelism = 1;
+            if (args.length == 5 && args[3].equals("--parallel")) {
+                parallelism = Math.max(1, Integer.parseInt(args[4]));
+            } else if (args.length != 3) {
+                printUsage();
+                return;
+            }
+            solveFolder(args[1], args[2], parallelism);
+            return;
+        }
+
+        if (args.length >= 3 && args[0].equals("validate")) {
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            if (args.length == 5 && args[3].equals("--parallel")) {
+                parallelism = Math.max(1, Integer.parseInt(args[4]));
+            } else if (args.length != 3) {
+                printUsage();
+                return;
+            }
+            int failures = new SolutionValidator(args[1], args[2], parallelism).run();
+            if (failures > 0) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (args.length != 2) {
+            printUsage();
+            return;
+        }
 
-        challenge.writeOutput(challengeSolution, args[1]);
+        solveFile(args[0], args[1], stopWatch);
     }
 }
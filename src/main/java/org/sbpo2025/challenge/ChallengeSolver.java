@@ -2,7 +2,6 @@ package org.sbpo2025.challenge;
 
 import org.apache.commons.lang3.time.StopWatch;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,22 +12,22 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 
-import ilog.concert.*;
-import ilog.cplex.*;
-
-public class ChallengeSolver {
-    private final long MAX_RUNTIME = 600000; // milliseconds; 10 minutes
+public class ChallengeSolver implements WaveSolver {
+    private final long MAX_RUNTIME = TimeLimit.millis(); // milliseconds; 10 minutes by default
     private final long RUNTIME = 600; // seconds; 10 minutes
     private static int BIN_ITER = 7; 
     private final long LAG_ITER = 2000; 
 
     private SliceChallengeSolver sliceSolver;
-    protected List<Map<Integer, Integer>> orders;
-    protected List<Map<Integer, Integer>> aisles;
+    protected Instance instance;
     protected int nItems;
     protected int waveSizeLB;
     protected int waveSizeUB;
 
+    protected IncumbentHolder incumbentHolder = new IncumbentHolder();
+    protected volatile boolean cancelled = false;
+    private volatile MipBackend activeBackend;
+    private int mipThreads = 0;
     
 
     public static double f(int x) {
@@ -44,62 +43,69 @@ public class ChallengeSolver {
         return normalized;
     }
 
-    public ChallengeSolver(
-            List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems, int waveSizeLB, int waveSizeUB) {
-        this.orders = orders;
-        this.aisles = aisles;
-        this.nItems = nItems;
-        this.waveSizeLB = waveSizeLB;
-        this.waveSizeUB = waveSizeUB;
+    public ChallengeSolver(Instance instance) {
+        this.instance = instance;
+        this.nItems = instance.nItems();
+        this.waveSizeLB = instance.waveSizeLB();
+        this.waveSizeUB = instance.waveSizeUB();
 
-        this.sliceSolver = new SliceChallengeSolver(orders, aisles, nItems, waveSizeLB, waveSizeUB);
+        this.sliceSolver = new SliceChallengeSolver(instance);
     }
 
-    public ChallengeSolution solve(StopWatch stopWatch) {
-        long totalItens = 0;
+    @Override
+    public void setIncumbentHolder(IncumbentHolder incumbentHolder) {
+        this.incumbentHolder = incumbentHolder;
+        sliceSolver.setIncumbentHolder(incumbentHolder);
+    }
 
-        for(int o = 0 ; o < orders.size() ; o++){
-            for(var entry: orders.get(o).entrySet()){
-                totalItens += entry.getValue();
-            }
+    /*
+     * Threads given to each MIP solve, 0 leaves the engine default
+     */
+    public void setMipThreads(int mipThreads) {
+        this.mipThreads = mipThreads;
+        sliceSolver.setMipThreads(mipThreads);
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        sliceSolver.cancel();
+        MipBackend backend = activeBackend;
+        if (backend != null) {
+            backend.abort();
         }
+    }
+
+    public ChallengeSolution solve(StopWatch stopWatch) {
+        long totalItens = instance.totalUnits();
 
-        if(totalItens < 2 * orders.size()){
+        if(totalItens < 2 * instance.nOrders()){
             return sliceSolver.solve(stopWatch);
         }
+        return solveExact(stopWatch);
+    }
+
+    /*
+     * Dinkelbach over the full order/aisle model
+     */
+    public ChallengeSolution solveExact(StopWatch stopWatch) {
 
-       // Build item-oriented maps
-        Map<Integer,Integer>[] OrderItems = new HashMap[nItems];
-        Map<Integer,Integer>[] AisleItems = new HashMap[nItems];
-        for(int i=0;i<nItems;i++){
-            OrderItems[i]=new HashMap<>();
-            AisleItems[i]=new HashMap<>();
-        }
-        for(int o=0;o<orders.size();o++){
-            for(Map.Entry<Integer,Integer> e: orders.get(o).entrySet()){
-                OrderItems[e.getKey()].put(o,e.getValue());
-            }
-        }
-        for(int a=0;a<aisles.size();a++){
-            for(Map.Entry<Integer,Integer> e: aisles.get(a).entrySet()){
-                AisleItems[e.getKey()].put(a,e.getValue());
-            }
-        }
-        boolean mark = false;
         double bestOverallPrimal = Double.NEGATIVE_INFINITY;
         double dual = Double.NEGATIVE_INFINITY;
-        double alpha = 1e-8;
         double epsilon = 1e-6;
         Set<Integer> bestOrders = new HashSet<>();
         Set<Integer> bestAisles = new HashSet<>();
-        IloObjective objective = null;
         double gap = 0;
-        IloCplex.Status stat = null;
-        try {
-            IloCplex cplex = new IloCplex();
-            cplex.setOut(null);
-            cplex.setWarning(null);
-            cplex.setParam(IloCplex.IntParam.MIP.Display, 0);
+        MipBackend.Status stat = null;
+        try (MipBackend backend = MipBackend.create()) {
+            activeBackend = backend;
+            if (cancelled) {
+                backend.abort();
+            }
+            backend.setQuiet(true);
+            if (mipThreads > 0) {
+                backend.setThreads(mipThreads);
+            }
             // cplex.setParam(IloCplex.IntParam.MIP.Interval, 0);
             // cplex.setParam(IloCplex.IntParam.MIP.Limits.TreeMemory, 4096);
             // cplex.setParam(IloCplex.DoubleParam.TiLim, RUNTIME/BIN_ITER);
@@ -111,142 +117,98 @@ public class ChallengeSolver {
             // cplex.setParam(IloCplex.IntParam.MIP.Strategy.Dive, 3);
             // cplex.setParam(IloCplex.IntParam.MIP.Limits.StrongIt, 10); 
             // cplex.setParam(IloCplex.IntParam.MIP.Strategy.Branch, 3);
-            IloNumVar [] ordvar = cplex.numVarArray(orders.size(),0,1, IloNumVarType.Bool);
-            IloNumVar [] aisvar = cplex.numVarArray(aisles.size(),0,1, IloNumVarType.Bool);
-
-            
-            IloLinearNumExpr sumorders = cplex.linearNumExpr();
-            for (int i = 0; i < orders.size(); i++) {
-                for (Map.Entry<Integer, Integer> entry : orders.get(i).entrySet()) {
-                    sumorders.addTerm(entry.getValue(),ordvar[i]);
-                }
+            // Identical orders and identical aisles share one integer variable, dominated aisles wait for their dominators
+            OrderAggregator aggregator = new OrderAggregator(instance, false);
+            AisleDominance dominance = new AisleDominance(aggregator.aggregated());
+            System.out.println(aggregator.report());
+            System.out.println(dominance.report());
+            SolverEvents.ModelBuild buildEvent = new SolverEvents.ModelBuild();
+            buildEvent.begin();
+            long buildStart = System.nanoTime();
+            SolverTrace.Span buildSpan = SolverTrace.start();
+            WaveModel model = WaveModel.build(backend, dominance.aggregated(),
+                    aggregator.isIdentity() ? null : aggregator.upperBounds(), dominance);
+            incumbentHolder.recordModelBuild(System.nanoTime() - buildStart);
+            if (buildEvent.shouldCommit()) {
+                buildEvent.solver = "exact";
+                buildEvent.slice = -1;
+                buildEvent.orders = model.orderVars().length;
+                buildEvent.aisles = model.aisleVars().length;
+                buildEvent.commit();
             }
-            IloLinearNumExpr sumaisles = cplex.linearNumExpr();
-            for (int i = 0; i < aisles.size(); i++) {
-                sumaisles.addTerm(1,aisvar[i]);
+            if (SolverTrace.ENABLED) {
+                SolverTrace.line("model build", buildSpan).field("solver", "exact")
+                        .field("orders", model.orderVars().length).field("aisles", model.aisleVars().length).write();
             }
-
-            cplex.addGe(sumaisles, 1);
-
-            cplex.addGe(sumorders, waveSizeLB);
-
-            cplex.addLe(sumorders, waveSizeUB);
-
-            for (int i = 0; i < nItems; i++) {
-                IloLinearNumExpr ordersum = cplex.linearNumExpr();
-                IloLinearNumExpr aislesum = cplex.linearNumExpr();
-                for (Map.Entry<Integer, Integer> entry: OrderItems[i].entrySet()) {
-                    ordersum.addTerm(entry.getValue(),ordvar[entry.getKey()]);
-                }
-                for (Map.Entry<Integer, Integer> entry : AisleItems[i].entrySet()) {
-                    aislesum.addTerm(entry.getValue(),aisvar[entry.getKey()]);
-                }
-                cplex.addLe(ordersum,aislesum);
-            }
-            double startTime = cplex.getCplexTime();
-            cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, 0.1);
+            int [] ordvar = model.orderVars();
+            int [] aisvar = model.aisleVars();
+            backend.setRelativeGapTolerance(0.1);
             // cplex.setParam(IloCplex.DoubleParam.WorkMem, 14000); // limitar uso de memoria pra 14 GB
             // // Descobrir o número de núcleos da CPU
             // int totalCores = Runtime.getRuntime().availableProcessors();
             // int maxThreads = (totalCores*8+9)/10; // 80% dos núcleos
             // // Limitar o número de threads do CPLEX
             // cplex.setParam(IloCplex.IntParam.Threads, maxThreads);
-            IloLinearNumExpr objetivo = cplex.linearNumExpr();
-            for(int c = 0; c < BIN_ITER; c++)
-            {
-
-                if(getRemainingTime(stopWatch) <=20)
-                    break;
-                // cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, f(c));
-                // if(c == 4)
-                // {
-                // }
-                // if(c != 0){
-                    // System.out.println("ALO7 "+cplex.getObjValue());
-                // }
-                // double mid = l;
-                // System.out.println("\n -------Execução " + c+" alpha "+alpha+" Tempo Disponivel "+(getRemainingTime(stopWatch)-20)/(BIN_ITER-c)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
-                // System.out.println("\n -------Execução " + c+" alpha "+alpha+" Tempo Disponivel "+getRemainingTime(stopWatch)+" gap "+ f(c)+" ------\n");
-                if(c == 0 || Math.abs(cplex.getObjValue()) > epsilon)
-                {
+            DinkelbachDriver driver = new DinkelbachDriver(backend, ordvar, model.orderUnits(), aisvar);
+            driver.setName("exact");
+            driver.setAlpha(1e-8);
+            // A known wave lets the loop start at its ratio, with the wave as MIP start
+            IncumbentHolder.Incumbent seed = incumbentHolder.get();
+            if (seed != null) {
+                driver.setAlpha(seed.ratio());
+                driver.setIncumbent(aggregator.compress(seed.solution().orders()),
+                        dominance.compress(seed.solution().aisles()));
+            }
+            driver.setEpsilon(epsilon);
+            driver.setMaxIterations(BIN_ITER);
+            DinkelbachDriver.Outcome outcome = driver.run(new DinkelbachDriver.IterationListener() {
+                @Override
+                public double beforeSolve(int c, double alpha) {
+                    if(cancelled || getRemainingTime(stopWatch) <=20)
+                        return -1;
+                    // cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, f(c));
+                    // System.out.println("\n -------Execução " + c+" alpha "+alpha+" Tempo Disponivel "+(getRemainingTime(stopWatch)-20)/(BIN_ITER-c)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
                     if(c != 0){
-                        // cplex.addGe(objetivo, cplex.getObjValue());
-                        cplex.remove(objective);
-                        cplex.setParam(IloCplex.IntParam.RootAlg, IloCplex.Algorithm.Dual);
-                    }
-                    objetivo = cplex.linearNumExpr();
-                    for (int i = 0; i < orders.size(); i++) {
-                        for (Map.Entry<Integer, Integer> entry : orders.get(i).entrySet()) {
-                            objetivo.addTerm(entry.getValue(),ordvar[i]);
-                        }
+                        backend.useDualSimplexAtRoot();
                     }
-                    
-                    for (int i = 0; i < aisles.size(); i++) {
-                        objetivo.addTerm(-alpha,aisvar[i]);
-                    }
-
-                    
-                    objective = cplex.addMaximize(objetivo);
+                    // TIRANDO TLE PRA BRUTAR
+                    return (getRemainingTime(stopWatch)-20)/(BIN_ITER-c);
                 }
 
-                // TIRANDO TLE PRA BRUTAR
-
-                cplex.setParam(IloCplex.DoubleParam.TiLim, (getRemainingTime(stopWatch)-20)/(BIN_ITER-c));
-                if (cplex.solve()) {
-                    // System.out.println("Valor ótimo = " + cplex.getObjValue());
-                    double g=0;
-                    for(int a=0;a<aisles.size();a++){
-                        if(cplex.getValue(aisvar[a])>0.5){ g++; }
-                    }
-                    alpha = alpha + cplex.getObjValue()/g;
-                    if(cplex.getStatus() == IloCplex.Status.Optimal && Math.abs(cplex.getObjValue()) < epsilon){
-                        mark = true;
-                        break;
-                    }
-                    // if(Math.abs(cplex.getObjValue()) > epsilon)
-                    // System.out.println("ALO1");
-                } else {
-                    cplex.end();
-                    System.out.println("Não foi encontrada solução viável.");
-                    return null;
-                } 
+                @Override
+                public void afterSolve(int c, double alpha, MipBackend.Status status, double objective) {
+                    incumbentHolder.offer(new ChallengeSolution(aggregator.expand(driver.orderValues()), dominance.expand(driver.aisleValues())),
+                            alpha, "exact");
+                }
+            });
+            if (outcome == DinkelbachDriver.Outcome.CONVERGED) {
+                incumbentHolder.markOptimal();
             }
-            
-
-
-           
-            bestOrders.clear();
-            bestAisles.clear();
-            for (int i = 0; i < orders.size(); i++) {
-                if(cplex.getValue(ordvar[i]) > 0.5)
-                    bestOrders.add(i);
+            incumbentHolder.offerUpperBound(driver.upperBound());
+            System.out.print(driver.report());
+            if (outcome == DinkelbachDriver.Outcome.NO_SOLUTION) {
+                System.out.println("Não foi encontrada solução viável.");
+                return null;
             }
-            for (int i = 0; i < aisles.size(); i++) {
-                if(cplex.getValue(aisvar[i]) > + 0.5)
-                    bestAisles.add(i);
+            if (driver.iterations() == 0) {
+                return new ChallengeSolution(bestOrders,bestAisles);
             }
-            bestOverallPrimal=alpha;
-            gap = cplex.getMIPRelativeGap();
-            stat = cplex.getStatus();
-            cplex.end();
+
+            bestOrders.addAll(aggregator.expand(driver.orderValues()));
+            bestAisles.addAll(dominance.expand(driver.aisleValues()));
+            bestOverallPrimal=driver.alpha();
+            gap = backend.getRelativeGap();
+            stat = driver.status();
             // try (BufferedWriter writer = new BufferedWriter(new FileWriter("log.txt", true))) {
             //         writer.write("-------Resultado: ratio "+bestOverallPrimal+ " GAP "+gap + " Otima? "+stat+ " Tempo gasto: " + stopWatch.getTime(TimeUnit.SECONDS) + "s" +" ------\n");   
             // } catch (IOException e) {
             //     e.printStackTrace();
             // }
-            // if(mark)
-            // {
-            //     // try (BufferedWriter writer = new BufferedWriter(new FileWriter("log.txt", true))){
-
-            //     //     writer.write("parei antes patrão\n");
-            //     // }catch (IOException e) {
-            //     //     e.printStackTrace();
-            //     // }
-            //     return new ChallengeSolution(bestOrders,bestAisles);
-            // }
             
-        } catch (IloException e) {
+        } catch (MipBackendException e) {
             e.printStackTrace();
+        } finally {
+            activeBackend = null;
         }
 
         
@@ -416,6 +378,19 @@ public class ChallengeSolver {
         return new ChallengeSolution(bestOrders,bestAisles);
     }
 
+    /*
+     * Indexes whose value is set in a binary solution
+     */
+    protected static Set<Integer> selected(double[] values) {
+        Set<Integer> indexes = new HashSet<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] > 0.5) {
+                indexes.add(i);
+            }
+        }
+        return indexes;
+    }
+
     /*
      * Get the remaining time in seconds
      */
@@ -424,66 +399,4 @@ public class ChallengeSolver {
                 TimeUnit.SECONDS.convert(MAX_RUNTIME - stopWatch.getTime(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS),
                 0);
     }
-
-    protected boolean isSolutionFeasible(ChallengeSolution challengeSolution) {
-        Set<Integer> selectedOrders = challengeSolution.orders();
-        Set<Integer> visitedAisles = challengeSolution.aisles();
-        if (selectedOrders == null || visitedAisles == null || selectedOrders.isEmpty() || visitedAisles.isEmpty()) {
-            return false;
-        }
-
-        int[] totalUnitsPicked = new int[nItems];
-        int[] totalUnitsAvailable = new int[nItems];
-
-        // Calculate total units picked
-        for (int order : selectedOrders) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                totalUnitsPicked[entry.getKey()] += entry.getValue();
-            }
-        }
-
-        // Calculate total units available
-        for (int aisle : visitedAisles) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                totalUnitsAvailable[entry.getKey()] += entry.getValue();
-            }
-        }
-
-        // Check if the total units picked are within bounds
-        int totalUnits = Arrays.stream(totalUnitsPicked).sum();
-        if (totalUnits < waveSizeLB || totalUnits > waveSizeUB) {
-            return false;
-        }
-
-        // Check if the units picked do not exceed the units available
-        for (int i = 0; i < nItems; i++) {
-            if (totalUnitsPicked[i] > totalUnitsAvailable[i]) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    protected double computeObjectiveFunction(ChallengeSolution challengeSolution) {
-        Set<Integer> selectedOrders = challengeSolution.orders();
-        Set<Integer> visitedAisles = challengeSolution.aisles();
-        if (selectedOrders == null || visitedAisles == null || selectedOrders.isEmpty() || visitedAisles.isEmpty()) {
-            return 0.0;
-        }
-        int totalUnitsPicked = 0;
-
-        // Calculate total units picked
-        for (int order : selectedOrders) {
-            totalUnitsPicked += orders.get(order).values().stream()
-                    .mapToInt(Integer::intValue)
-                    .sum();
-        }
-
-        // Calculate the number of visited aisles
-        int numVisitedAisles = visitedAisles.size();
-
-        // Objective function: total units picked / number of visited aisles
-        return (double) totalUnitsPicked / numVisitedAisles;
-    }
 }
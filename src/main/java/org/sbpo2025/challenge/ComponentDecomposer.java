@@ -0,0 +1,229 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+ * Splits an instance into the connected components of its order - item - aisle graph (union-find over the CSR rows).
+ * A wave spread over several components is never better than its best part when every part meets waveSizeLB alone,
+ * so when waveSizeLB is at most the smallest order each component is solved on its own and the best ratio wins.
+ * Otherwise components too small to reach waveSizeLB are merged into the largest one, and the result is only
+ * a heuristic (isExact() is false).
+ * Components without orders or without aisles are dropped.
+ */
+public class ComponentDecomposer {
+    /*
+     * One sub-instance and the original indexes of its orders and aisles
+     */
+    public record Part(Instance instance, int[] orderMap, int[] aisleMap) {
+        public ChallengeSolution restore(ChallengeSolution solution) {
+            Set<Integer> orders = new TreeSet<>();
+            for (int order : solution.orders()) {
+                orders.add(orderMap[order]);
+            }
+            Set<Integer> aisles = new TreeSet<>();
+            for (int aisle : solution.aisles()) {
+                aisles.add(aisleMap[aisle]);
+            }
+            return new ChallengeSolution(orders, aisles);
+        }
+    }
+
+    private final Instance instance;
+    private final List<Part> parts = new ArrayList<>();
+    private final int nComponents;
+    private final boolean exact;
+    private boolean merged = false;
+
+    public ComponentDecomposer(Instance instance) {
+        this.instance = instance;
+        int nOrders = instance.nOrders();
+        int nAisles = instance.nAisles();
+        int nItems = instance.nItems();
+        int[] orderUnits = instance.orderUnits();
+
+        // Nodes: orders [0, nOrders), aisles [nOrders, nOrders + nAisles); an item links every row holding it
+        int[] parent = new int[nOrders + nAisles];
+        for (int v = 0; v < parent.length; v++) {
+            parent[v] = v;
+        }
+        int[] firstRow = new int[nItems];
+        Arrays.fill(firstRow, -1);
+        link(parent, firstRow, instance.orderStart(), instance.orderItems(), 0);
+        link(parent, firstRow, instance.aisleStart(), instance.aisleItems(), nOrders);
+
+        // Component id per root, counting its orders, aisles and units
+        int[] idOfRoot = new int[parent.length];
+        Arrays.fill(idOfRoot, -1);
+        int[] componentOf = new int[parent.length];
+        int n = 0;
+        for (int v = 0; v < parent.length; v++) {
+            int root = find(parent, v);
+            if (idOfRoot[root] < 0) {
+                idOfRoot[root] = n++;
+            }
+            componentOf[v] = idOfRoot[root];
+        }
+        int[] nComponentOrders = new int[n];
+        int[] nComponentAisles = new int[n];
+        long[] componentUnits = new long[n];
+        for (int o = 0; o < nOrders; o++) {
+            nComponentOrders[componentOf[o]]++;
+            componentUnits[componentOf[o]] += orderUnits[o];
+        }
+        for (int a = 0; a < nAisles; a++) {
+            nComponentAisles[componentOf[nOrders + a]]++;
+        }
+
+        int smallestOrder = Integer.MAX_VALUE;
+        for (int o = 0; o < nOrders; o++) {
+            smallestOrder = Math.min(smallestOrder, orderUnits[o]);
+        }
+        this.exact = instance.waveSizeLB() <= smallestOrder;
+
+        int largest = -1;
+        int useful = 0;
+        for (int c = 0; c < n; c++) {
+            if (nComponentOrders[c] > 0 && nComponentAisles[c] > 0) {
+                useful++;
+                if (largest < 0 || componentUnits[c] > componentUnits[largest]) {
+                    largest = c;
+                }
+            }
+        }
+        this.nComponents = useful;
+
+        // Part of each useful component, small ones share the part of the largest one when not exact
+        int[] partOf = new int[n];
+        Arrays.fill(partOf, -1);
+        int nParts = 0;
+        if (largest >= 0) {
+            partOf[largest] = nParts++;
+        }
+        for (int c = 0; c < n; c++) {
+            if (c == largest || nComponentOrders[c] == 0 || nComponentAisles[c] == 0) {
+                continue;
+            }
+            if (exact || componentUnits[c] >= instance.waveSizeLB()) {
+                partOf[c] = nParts++;
+            } else {
+                partOf[c] = partOf[largest];
+                merged = true;
+            }
+        }
+
+        int[][] partOrders = new int[nParts][];
+        int[][] partAisles = new int[nParts][];
+        int[] orderCount = new int[nParts];
+        int[] aisleCount = new int[nParts];
+        for (int c = 0; c < n; c++) {
+            if (partOf[c] >= 0) {
+                orderCount[partOf[c]] += nComponentOrders[c];
+                aisleCount[partOf[c]] += nComponentAisles[c];
+            }
+        }
+        for (int p = 0; p < nParts; p++) {
+            partOrders[p] = new int[orderCount[p]];
+            partAisles[p] = new int[aisleCount[p]];
+        }
+        Arrays.fill(orderCount, 0);
+        Arrays.fill(aisleCount, 0);
+        for (int o = 0; o < nOrders; o++) {
+            int p = partOf[componentOf[o]];
+            if (p >= 0) {
+                partOrders[p][orderCount[p]++] = o;
+            }
+        }
+        for (int a = 0; a < nAisles; a++) {
+            int p = partOf[componentOf[nOrders + a]];
+            if (p >= 0) {
+                partAisles[p][aisleCount[p]++] = a;
+            }
+        }
+
+        int[] itemMap = new int[nItems];
+        Arrays.fill(itemMap, -1);
+        int[] partItems = new int[nItems];
+        int[] orderStart = instance.orderStart();
+        int[] orderItems = instance.orderItems();
+        int[] aisleStart = instance.aisleStart();
+        int[] aisleItems = instance.aisleItems();
+        for (int p = 0; p < nParts; p++) {
+            // Items of a part only appear in its rows; numbered in increasing order so the rows stay sorted
+            int nPartItems = 0;
+            for (int o : partOrders[p]) {
+                for (int k = orderStart[o]; k < orderStart[o + 1]; k++) {
+                    if (itemMap[orderItems[k]] < 0) {
+                        itemMap[orderItems[k]] = 0;
+                        partItems[nPartItems++] = orderItems[k];
+                    }
+                }
+            }
+            for (int a : partAisles[p]) {
+                for (int k = aisleStart[a]; k < aisleStart[a + 1]; k++) {
+                    if (itemMap[aisleItems[k]] < 0) {
+                        itemMap[aisleItems[k]] = 0;
+                        partItems[nPartItems++] = aisleItems[k];
+                    }
+                }
+            }
+            Arrays.sort(partItems, 0, nPartItems);
+            for (int k = 0; k < nPartItems; k++) {
+                itemMap[partItems[k]] = k;
+            }
+            parts.add(new Part(instance.restrict(partOrders[p], partAisles[p], itemMap, nPartItems),
+                    partOrders[p], partAisles[p]));
+            for (int k = 0; k < nPartItems; k++) {
+                itemMap[partItems[k]] = -1;
+            }
+        }
+    }
+
+    private static void link(int[] parent, int[] firstRow, int[] start, int[] items, int offset) {
+        for (int r = 0; r + 1 < start.length; r++) {
+            for (int k = start[r]; k < start[r + 1]; k++) {
+                int item = items[k];
+                if (firstRow[item] < 0) {
+                    firstRow[item] = offset + r;
+                } else {
+                    union(parent, firstRow[item], offset + r);
+                }
+            }
+        }
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[rootA] = rootB;
+        }
+    }
+
+    public List<Part> parts() {
+        return parts;
+    }
+
+    /*
+     * Whether the best part is the best wave of the whole instance
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    public String report() {
+        return "Components " + nComponents + ", parts " + parts.size() + (merged ? " (small ones merged by waveSizeLB)" : "")
+                + " for " + instance.nOrders() + " orders";
+    }
+}
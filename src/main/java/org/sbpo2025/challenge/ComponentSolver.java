@@ -0,0 +1,127 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+/*
+ * Solves the parts of a ComponentDecomposer in parallel under the same stopwatch, each with its own solver
+ * from the factory, and keeps the best ratio mapped back to the original indexes.
+ * Optimality is only claimed when the decomposition is exact and every part proved it, the ratio bound
+ * (the largest bound of the parts) likewise.
+ */
+public class ComponentSolver implements WaveSolver {
+    private final Instance instance;
+    private final ComponentDecomposer decomposer;
+    private final Function<Instance, WaveSolver> factory;
+    private IncumbentHolder incumbentHolder = new IncumbentHolder();
+    private final List<WaveSolver> members = new ArrayList<>();
+
+    public ComponentSolver(Instance instance, ComponentDecomposer decomposer, Function<Instance, WaveSolver> factory) {
+        this.instance = instance;
+        this.decomposer = decomposer;
+        this.factory = factory;
+    }
+
+    @Override
+    public void setIncumbentHolder(IncumbentHolder incumbentHolder) {
+        this.incumbentHolder = incumbentHolder;
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (members) {
+            for (WaveSolver member : members) {
+                member.cancel();
+            }
+        }
+    }
+
+    @Override
+    public ChallengeSolution solve(StopWatch stopWatch) {
+        List<ComponentDecomposer.Part> parts = decomposer.parts();
+        int cores = Runtime.getRuntime().availableProcessors();
+        int mipThreads = Math.max(1, cores / parts.size());
+        List<IncumbentHolder> holders = new ArrayList<>();
+        synchronized (members) {
+            members.clear();
+            for (ComponentDecomposer.Part part : parts) {
+                WaveSolver member = factory.apply(part.instance());
+                if (member instanceof ChallengeSolver exact) {
+                    exact.setMipThreads(mipThreads);
+                }
+                IncumbentHolder holder = new IncumbentHolder();
+                holder.setListener(forwardTo(part));
+                member.setIncumbentHolder(holder);
+                holders.add(holder);
+                members.add(member);
+            }
+        }
+
+        SolutionEvaluator evaluator = new SolutionEvaluator(instance);
+        boolean allOptimal = true;
+        double partBound = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parts.size(), cores));
+        try {
+            List<Future<ChallengeSolution>> futures = new ArrayList<>();
+            for (WaveSolver member : members) {
+                futures.add(executor.submit(() -> member.solve(stopWatch)));
+            }
+            for (int p = 0; p < parts.size(); p++) {
+                try {
+                    ChallengeSolution solution = futures.get(p).get();
+                    if (solution != null && solution.orders() != null && solution.aisles() != null) {
+                        ChallengeSolution restored = parts.get(p).restore(solution);
+                        if (evaluator.isFeasible(restored)) {
+                            incumbentHolder.offer(restored, evaluator.objective(restored), "component " + p);
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    System.err.println("Component " + p + " failed");
+                    e.getCause().printStackTrace();
+                }
+                allOptimal &= holders.get(p).isProvenOptimal();
+                incumbentHolder.absorbStatistics(holders.get(p));
+                partBound = Math.max(partBound, holders.get(p).upperBound());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            allOptimal = false;
+            partBound = Double.POSITIVE_INFINITY;
+        } finally {
+            executor.shutdown();
+        }
+
+        if (decomposer.isExact()) {
+            if (allOptimal) {
+                incumbentHolder.markOptimal();
+            }
+            incumbentHolder.offerUpperBound(partBound);
+        }
+        IncumbentHolder.Incumbent best = incumbentHolder.get();
+        if (best == null) {
+            return new ChallengeSolution(new HashSet<>(), new HashSet<>());
+        }
+        System.out.println("Components best ratio " + best.ratio() + " from " + best.source()
+                + (incumbentHolder.isProvenOptimal() ? " (optimal)" : ""));
+        return best.solution();
+    }
+
+    /*
+     * Passes every solution of a part on to the holder of the whole instance as soon as it is found,
+     * a part's wave is a wave of the whole instance with the same ratio
+     */
+    private Consumer<IncumbentHolder.Incumbent> forwardTo(ComponentDecomposer.Part part) {
+        return incumbent -> incumbentHolder.offer(part.restore(incumbent.solution()), incumbent.ratio(),
+                "component " + incumbent.source());
+    }
+}
@@ -0,0 +1,279 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Dinkelbach iterations for max sum(units * x) / sum(y) on a MipBackend:
+ * each iteration maximizes sum(units * x) - alpha * sum(y) and moves alpha to the ratio of the incumbent,
+ * until the objective reaches zero. The model constraints are owned by the caller.
+ * Only the objective changes between iterations, so the previous incumbent is offered as MIP start
+ * (disable with -Dsbpo.warmstart=false to compare).
+ * The order coefficients never change either: after the first build only the aisle coefficients (-alpha)
+ * are updated in place.
+ * Every wave visits at least one aisle, so F(alpha) >= best ratio - alpha: alpha plus the best MIP bound of F
+ * is an upper bound on the ratio of the model, see upperBound().
+ */
+public class DinkelbachDriver {
+    public enum Outcome {
+        CONVERGED, ITERATION_LIMIT, STOPPED, NO_SOLUTION
+    }
+
+    /*
+     * One solve of the loop, times in seconds
+     */
+    public record Iteration(int index, double alpha, double objective, MipBackend.Status status,
+                            double objectiveUpdateSeconds, double solveSeconds, double firstIncumbentSeconds,
+                            boolean warmStarted) {
+        @Override
+        public String toString() {
+            return String.format("iter %d alpha %.6f obj %.6f %s objective update %.4fs solve %.2fs first incumbent %.2fs%s",
+                    index, alpha, objective, status, objectiveUpdateSeconds, solveSeconds, firstIncumbentSeconds,
+                    warmStarted ? " (warm)" : "");
+        }
+    }
+
+    public interface IterationListener {
+        /*
+         * Time limit in seconds for the iteration, a negative value stops the loop before solving
+         */
+        double beforeSolve(int iteration, double alpha);
+
+        default void afterSolve(int iteration, double alpha, MipBackend.Status status, double objective) {
+        }
+    }
+
+    private final MipBackend backend;
+    private final int[] orderVars;
+    private final double[] orderCoefficients;
+    private int[] aisleVars;
+    private double[] aisleCoefficients;
+    private boolean objectiveBuilt = false;
+    private double epsilon = 1e-6;
+    private int maxIterations = 7;
+    private boolean requireOptimal = true;
+    private boolean warmStart = Boolean.parseBoolean(System.getProperty("sbpo.warmstart", "true"));
+    private String name = "dinkelbach";
+
+    private double alpha = 0;
+    private double objective = 0;
+    private int iterations = 0;
+    private MipBackend.Status status = null;
+    private double[] incumbentOrders = null;
+    private double[] incumbentAisles = null;
+    private double upperBound = Double.POSITIVE_INFINITY;
+    private final List<Iteration> log = new ArrayList<>();
+
+    public DinkelbachDriver(MipBackend backend, int[] orderVars, double[] orderCoefficients, int[] aisleVars) {
+        this.backend = backend;
+        this.orderVars = orderVars;
+        this.orderCoefficients = orderCoefficients;
+        this.aisleVars = aisleVars;
+    }
+
+    public void setAlpha(double alpha) {
+        this.alpha = alpha;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /*
+     * When set, a zero objective only counts as converged if the backend proved optimality
+     */
+    public void setRequireOptimal(boolean requireOptimal) {
+        this.requireOptimal = requireOptimal;
+    }
+
+    /*
+     * Solver name written in the SolverTrace lines of the iterations
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setWarmStart(boolean warmStart) {
+        this.warmStart = warmStart;
+    }
+
+    /*
+     * Known solution in model values (e.g. GreedyConstructor's), offered as MIP start of the first solve
+     * when warm starts are on
+     */
+    public void setIncumbent(double[] orderValues, double[] aisleValues) {
+        this.incumbentOrders = orderValues;
+        this.incumbentAisles = aisleValues;
+    }
+
+    /*
+     * For models whose aisle set grows between runs, the next iteration rebuilds the objective
+     */
+    public void setAisleVars(int[] aisleVars) {
+        if (aisleVars != this.aisleVars) {
+            this.aisleVars = aisleVars;
+            this.objectiveBuilt = false;
+        }
+    }
+
+    /*
+     * Runs up to maxIterations more iterations, alpha carries over from previous runs
+     */
+    public Outcome run(IterationListener listener) {
+        for (int c = 0; c < maxIterations; c++) {
+            double timeLimit = listener.beforeSolve(c, alpha);
+            if (timeLimit < 0) {
+                return Outcome.STOPPED;
+            }
+            SolverEvents.DinkelbachIteration event = new SolverEvents.DinkelbachIteration();
+            event.begin();
+            // Keep the previous objective when the last iteration already hit zero, only the time limit changes
+            long updateStart = System.nanoTime();
+            SolverTrace.Span span = SolverTrace.start();
+            if (c == 0 || Math.abs(objective) > epsilon) {
+                updateObjective();
+            }
+            double updateSeconds = (System.nanoTime() - updateStart) / 1e9;
+
+            boolean warmStarted = warmStart && incumbentOrders != null;
+            if (warmStarted) {
+                offerIncumbent();
+            }
+
+            long solveStart = System.nanoTime();
+            status = backend.solve(timeLimit);
+            double solveSeconds = (System.nanoTime() - solveStart) / 1e9;
+            if (!status.hasSolution()) {
+                return Outcome.NO_SOLUTION;
+            }
+            objective = backend.getObjectiveValue();
+            incumbentOrders = backend.getValues(orderVars);
+            incumbentAisles = backend.getValues(aisleVars);
+            upperBound = Math.min(upperBound, alpha + Math.max(0, backend.getBestBound()));
+            double previousAlpha = alpha;
+            alpha += objective / countSelected(incumbentAisles);
+            iterations++;
+            log.add(new Iteration(log.size(), previousAlpha, objective, status,
+                    updateSeconds, solveSeconds, backend.getTimeToFirstIncumbent(), warmStarted));
+            if (event.shouldCommit()) {
+                event.solver = name;
+                event.iteration = log.size() - 1;
+                event.alpha = previousAlpha;
+                event.objective = objective;
+                event.gap = backend.getRelativeGap();
+                event.status = status.name();
+                event.aisles = countSelected(incumbentAisles);
+                event.timeLimit = (long) (timeLimit * 1000);
+                event.warmStarted = warmStarted;
+                event.commit();
+            }
+            if (SolverTrace.ENABLED) {
+                SolverTrace.line("dinkelbach", span).field("solver", name).field("iteration", log.size() - 1)
+                        .field("alpha", previousAlpha).field("objective", objective).field("gap", backend.getRelativeGap())
+                        .field("status", status).field("timeLimit", timeLimit).field("warm", warmStarted)
+                        .field("firstIncumbentSeconds", backend.getTimeToFirstIncumbent()).write();
+            }
+            listener.afterSolve(c, alpha, status, objective);
+
+            if (Math.abs(objective) < epsilon && (status == MipBackend.Status.OPTIMAL || !requireOptimal)) {
+                return Outcome.CONVERGED;
+            }
+        }
+        return Outcome.ITERATION_LIMIT;
+    }
+
+    /*
+     * The last incumbent stays feasible when only the objective changed; aisles added since then start at zero
+     */
+    private void offerIncumbent() {
+        int nOrders = orderVars.length;
+        int[] vars = new int[nOrders + aisleVars.length];
+        double[] values = new double[vars.length];
+        System.arraycopy(orderVars, 0, vars, 0, nOrders);
+        System.arraycopy(incumbentOrders, 0, values, 0, nOrders);
+        System.arraycopy(aisleVars, 0, vars, nOrders, aisleVars.length);
+        System.arraycopy(incumbentAisles, 0, values, nOrders, Math.min(incumbentAisles.length, aisleVars.length));
+        backend.setMipStart(vars, values);
+    }
+
+    private void updateObjective() {
+        if (objectiveBuilt) {
+            Arrays.fill(aisleCoefficients, -alpha);
+            backend.setObjectiveCoefficients(aisleVars, aisleCoefficients);
+            return;
+        }
+        aisleCoefficients = new double[aisleVars.length];
+        Arrays.fill(aisleCoefficients, -alpha);
+        int nOrders = orderVars.length;
+        int[] vars = new int[nOrders + aisleVars.length];
+        double[] coefficients = new double[vars.length];
+        System.arraycopy(orderVars, 0, vars, 0, nOrders);
+        System.arraycopy(orderCoefficients, 0, coefficients, 0, nOrders);
+        System.arraycopy(aisleVars, 0, vars, nOrders, aisleVars.length);
+        System.arraycopy(aisleCoefficients, 0, coefficients, nOrders, aisleVars.length);
+        backend.setObjective(vars, coefficients);
+        objectiveBuilt = true;
+    }
+
+    /*
+     * Aisle variables may count identical aisles (AisleDominance), so values are summed rather than tested
+     */
+    private static int countSelected(double[] values) {
+        int count = 0;
+        for (double value : values) {
+            count += (int) Math.round(value);
+        }
+        return count;
+    }
+
+    public double alpha() {
+        return alpha;
+    }
+
+    public double objective() {
+        return objective;
+    }
+
+    /*
+     * Smallest ratio bound proven so far, +infinity before the first solve
+     */
+    public double upperBound() {
+        return upperBound;
+    }
+
+    public int iterations() {
+        return iterations;
+    }
+
+    public MipBackend.Status status() {
+        return status;
+    }
+
+    /*
+     * Incumbent values of the last solve, null before the first one
+     */
+    public double[] orderValues() {
+        return incumbentOrders;
+    }
+
+    public double[] aisleValues() {
+        return incumbentAisles;
+    }
+
+    public List<Iteration> iterationLog() {
+        return log;
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Iteration iteration : log) {
+            report.append(iteration).append('\n');
+        }
+        return report.toString();
+    }
+}
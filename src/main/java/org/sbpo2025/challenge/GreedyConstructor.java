@@ -0,0 +1,236 @@
+package org.sbpo2025.challenge;
+
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+ * Constructive wave in milliseconds, run before any MIP so that the incumbent holder (and the checkpoint) has a
+ * feasible wave at once and the exact solver starts its Dinkelbach loop from that ratio.
+ * Orders are taken best score first, score = units / (1 + aisles the order still needs), from a priority queue.
+ * Taking an order lowers the score of the orders sharing its items (more demand to cover): a popped order is
+ * rescored and goes back when it no longer beats the next key. Opening an aisle raises the score of the orders
+ * sharing its items, those are rescored at once and pushed again (their older entries are skipped or rescored
+ * when popped). The aisles of a taken order come from AisleCoverOracle, a lazy greedy set cover of the item
+ * deficit over the closed aisles.
+ * Aisles are only opened along the way, so the best prefix with units >= waveSizeLB is replayed at the end,
+ * its redundant aisles closed and the slack left filled with orders.
+ * Disabled with -Dsbpo.greedy=false.
+ */
+public class GreedyConstructor {
+    private record Entry(int index, double score) {
+    }
+
+    private final Instance instance;
+    private final AisleCoverState state;
+    private final AisleCoverOracle oracle;
+    private final int[] orderUnits;
+    private final int[] orderStart;
+    private final int[] orderItems;
+    private final int[] orderQuantities;
+    private final int[] aisleStart;
+    private final int[] aisleItems;
+    private final int[] itemOrderStart;
+    private final int[] itemOrders;
+    private final int[] itemAisleStart;
+    private final int[] itemAisles;
+    private final int[] itemAisleQuantities;
+    // Aisles already counted for the order being scored
+    private final int[] stamp;
+    private int currentStamp = 0;
+    // Orders already rescored after the last aisles opened
+    private final int[] orderStamp;
+    private int currentOrderStamp = 0;
+
+    public GreedyConstructor(Instance instance) {
+        this.instance = instance;
+        this.state = new AisleCoverState(instance);
+        this.oracle = new AisleCoverOracle(instance);
+        this.orderUnits = instance.orderUnits();
+        this.orderStart = instance.orderStart();
+        this.orderItems = instance.orderItems();
+        this.orderQuantities = instance.orderQuantities();
+        this.aisleStart = instance.aisleStart();
+        this.aisleItems = instance.aisleItems();
+        ItemIndex itemIndex = instance.itemIndex();
+        this.itemOrderStart = itemIndex.orderStart();
+        this.itemOrders = itemIndex.orders();
+        this.itemAisleStart = itemIndex.aisleStart();
+        this.itemAisles = itemIndex.aisles();
+        this.itemAisleQuantities = itemIndex.aisleQuantities();
+        this.stamp = new int[instance.nAisles()];
+        this.orderStamp = new int[instance.nOrders()];
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("sbpo.greedy", "true"));
+    }
+
+    /*
+     * Offers the greedy wave to the holder unless it already has an incumbent
+     */
+    public static void seed(Instance instance, IncumbentHolder incumbentHolder) {
+        if (!enabled() || incumbentHolder.get() != null) {
+            return;
+        }
+        SolverTrace.Span span = SolverTrace.start();
+        ChallengeSolution solution = new GreedyConstructor(instance).construct();
+        double ratio = solution == null ? 0.0 : new SolutionEvaluator(instance).objective(solution);
+        if (solution != null) {
+            incumbentHolder.offer(solution, ratio, "greedy");
+        }
+        if (SolverTrace.ENABLED) {
+            SolverTrace.line("greedy", span).field("found", solution != null).field("ratio", ratio).write();
+        }
+    }
+
+    /*
+     * Returns a feasible wave, or null when the greedy never reaches waveSizeLB
+     */
+    public ChallengeSolution construct() {
+        int nOrders = instance.nOrders();
+        int waveSizeLB = instance.waveSizeLB();
+        int waveSizeUB = instance.waveSizeUB();
+        state.clear();
+
+        PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> Double.compare(b.score(), a.score()));
+        // Orders still worth scoring: not taken and not ruled out
+        boolean[] candidate = new boolean[nOrders];
+        for (int o = 0; o < nOrders; o++) {
+            if (orderUnits[o] <= waveSizeUB && state.fitsAllAisles(o)) {
+                candidate[o] = true;
+                queue.add(new Entry(o, score(o)));
+            }
+        }
+
+        int[] taken = new int[nOrders];
+        int[] opened = new int[instance.nAisles()];
+        int nTaken = 0;
+        int nOpened = 0;
+        int bestTaken = 0;
+        int bestOpened = 0;
+        int bestUnits = 0;
+        int bestNumberOfAisles = 0;
+        while (!queue.isEmpty() && state.units() < waveSizeUB) {
+            int order = queue.poll().index();
+            if (!candidate[order]) {
+                continue;
+            }
+            // Units and demand only grow, an order that does not fit now never will
+            if (state.units() + orderUnits[order] > waveSizeUB || !state.fitsAllAisles(order)) {
+                candidate[order] = false;
+                continue;
+            }
+            double score = score(order);
+            if (!queue.isEmpty() && score < queue.peek().score()) {
+                queue.add(new Entry(order, score));
+                continue;
+            }
+
+            state.addOrder(order);
+            candidate[order] = false;
+            taken[nTaken++] = order;
+            int nCovering = oracle.extend(state, order);
+            System.arraycopy(oracle.aisles(), 0, opened, nOpened, nCovering);
+            rescoreSharing(queue, candidate, opened, nOpened, nCovering);
+            nOpened += nCovering;
+
+            if (state.units() >= waveSizeLB && (bestUnits == 0
+                    || (long) state.units() * bestNumberOfAisles > (long) bestUnits * state.nOpen())) {
+                bestUnits = state.units();
+                bestNumberOfAisles = state.nOpen();
+                bestTaken = nTaken;
+                bestOpened = nOpened;
+            }
+        }
+        if (bestUnits == 0) {
+            return null;
+        }
+
+        // Replay the best prefix, drop the aisles it does not need (latest first) and fill the slack
+        state.clear();
+        for (int k = 0; k < bestTaken; k++) {
+            state.addOrder(taken[k]);
+        }
+        for (int k = 0; k < bestOpened; k++) {
+            state.openAisle(opened[k]);
+        }
+        for (int k = bestOpened - 1; k >= 0 && state.nOpen() > 1; k--) {
+            if (state.canClose(opened[k])) {
+                state.closeAisle(opened[k]);
+            }
+        }
+        Set<Integer> orders = new TreeSet<>();
+        for (int k = 0; k < bestTaken; k++) {
+            orders.add(taken[k]);
+        }
+        for (int o = 0; o < nOrders; o++) {
+            if (!orders.contains(o) && state.units() + orderUnits[o] <= waveSizeUB && state.fits(o)) {
+                state.addOrder(o);
+                orders.add(o);
+            }
+        }
+        Set<Integer> aisles = new TreeSet<>();
+        for (int a = state.openAisles().nextSetBit(0); a >= 0; a = state.openAisles().nextSetBit(a + 1)) {
+            aisles.add(a);
+        }
+        return new ChallengeSolution(orders, aisles);
+    }
+
+    /*
+     * Pushes again, with their new score, the candidate orders sharing an item with the aisles just opened
+     * (opened[from..from+count))
+     */
+    private void rescoreSharing(PriorityQueue<Entry> queue, boolean[] candidate, int[] opened, int from, int count) {
+        if (count == 0) {
+            return;
+        }
+        currentOrderStamp++;
+        for (int a = from; a < from + count; a++) {
+            int aisle = opened[a];
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                int item = aisleItems[k];
+                for (int j = itemOrderStart[item]; j < itemOrderStart[item + 1]; j++) {
+                    int order = itemOrders[j];
+                    if (candidate[order] && orderStamp[order] != currentOrderStamp) {
+                        orderStamp[order] = currentOrderStamp;
+                        queue.add(new Entry(order, score(order)));
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Units per aisle the order would add; the aisles it needs are estimated with the closed aisle holding
+     * the most of each short item
+     */
+    private double score(int order) {
+        currentStamp++;
+        int needed = 0;
+        for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+            int item = orderItems[k];
+            int deficit = state.deficit(item) + orderQuantities[k];
+            if (deficit <= 0) {
+                continue;
+            }
+            int bestAisle = -1;
+            int bestQuantity = 0;
+            for (int j = itemAisleStart[item]; j < itemAisleStart[item + 1]; j++) {
+                if (!state.isOpen(itemAisles[j]) && itemAisleQuantities[j] > bestQuantity) {
+                    bestAisle = itemAisles[j];
+                    bestQuantity = itemAisleQuantities[j];
+                }
+            }
+            if (bestAisle < 0) {
+                continue;
+            }
+            if (stamp[bestAisle] != currentStamp) {
+                stamp[bestAisle] = currentStamp;
+                needed++;
+            }
+            needed += (deficit - 1) / bestQuantity;
+        }
+        return (double) orderUnits[order] / (1 + needed);
+    }
+}
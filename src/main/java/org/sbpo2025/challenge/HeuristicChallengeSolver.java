@@ -1,151 +1,162 @@
 package org.sbpo2025.challenge;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.lang3.time.StopWatch;
 
 public class HeuristicChallengeSolver extends ChallengeSolver {
-    private final long MAX_RUNTIME = 540; // 9 minutes
+    private final long MAX_RUNTIME = TimeLimit.seconds() * 9 / 10; // 9 minutes by default
+    private static final int RESTARTS = 100;
     private ArrayList<Integer> ordersIndexes = new ArrayList<Integer>();
     private ArrayList<Integer> aislesIndexes = new ArrayList<Integer>();
         
 
-    public HeuristicChallengeSolver(List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems,
-            int waveSizeLB, int waveSizeUB) {
-        super(orders, aisles, nItems, waveSizeLB, waveSizeUB);
+    public HeuristicChallengeSolver(Instance instance) {
+        super(instance);
 
-        for(int i = 0 ; i < orders.size() ; i++){
+        for(int i = 0 ; i < instance.nOrders() ; i++){
             ordersIndexes.add(i);
         }
 
-        for(int i = 0 ; i < aisles.size() ; i++){
+        for(int i = 0 ; i < instance.nAisles() ; i++){
             aislesIndexes.add(i);
         }
     }
     
     @Override
     public ChallengeSolution solve(StopWatch stopWatch) {
-        var bestNumberOfItems = 0;
+        return solveIncremental(stopWatch, RESTARTS, MAX_RUNTIME);
+    }
+
+    /*
+     * Greedy over shuffled orders, with the aisle cover maintained by AisleCoverState:
+     * an accepted order only opens aisles for its own uncovered items (AisleCoverOracle.extend),
+     * and only the open aisles stocking its items are then checked for redundancy, in the shuffled aisle order.
+     */
+    ChallengeSolution solveIncremental(StopWatch stopWatch, int restarts, long maxSeconds) {
+        int[] orderUnits = instance.orderUnits();
+        int[] orderStart = instance.orderStart();
+        int[] orderItems = instance.orderItems();
+        ItemIndex itemIndex = instance.itemIndex();
+        int[] itemAisleStart = itemIndex.aisleStart();
+        int[] itemAisles = itemIndex.aisles();
+
+        AisleCoverState state = new AisleCoverState(instance);
+        AisleCoverOracle oracle = new AisleCoverOracle(instance);
+        int[] taken = new int[instance.nOrders()];
+        int[] rank = new int[instance.nAisles()];
+        oracle.setRank(rank);
+        // Open aisles stocking an item of the order just added, deduplicated by stamp
+        int[] sharing = new int[instance.nAisles()];
+        int[] stamp = new int[instance.nAisles()];
+        int currentStamp = 0;
+        int bestNumberOfItems = 0;
+        int bestNumberOfAisles = 0;
         Set<Integer> bestOrders = new TreeSet<>();
         Set<Integer> bestAisles = new TreeSet<>();
 
-        for(int iteration = 0 ; iteration < 100 ; iteration++){
-            if(stopWatch.getDuration().getSeconds() > MAX_RUNTIME){
+        for(int iteration = 0 ; iteration < restarts ; iteration++){
+            if(cancelled || stopWatch.getDuration().getSeconds() > maxSeconds){
                 break;
             }
 
-            var takedOrders = new TreeSet<Integer>();
+            SolverEvents.HeuristicRestart event = new SolverEvents.HeuristicRestart();
+            event.begin();
+            state.clear();
+            int nTaken = 0;
+            for(int r = 0 ; r < aislesIndexes.size() ; r++){
+                rank[aislesIndexes.get(r)] = r;
+            }
 
-            for(var orderNumber: ordersIndexes){
-                if(stopWatch.getDuration().getSeconds() > MAX_RUNTIME){
+            for(int orderNumber: ordersIndexes){
+                if(cancelled || stopWatch.getDuration().getSeconds() > maxSeconds){
                     break;
                 }
-                
-                takedOrders.add(orderNumber);
-                
-                var ailes = bestAislesToOrders(takedOrders);
-                var currentNumberOfItems = getOrdersItemsSum(takedOrders);
-
-                if(ailes.size() == 0 || currentNumberOfItems > waveSizeUB){
-                    takedOrders.remove(orderNumber);
-                }else if(
+                if(state.units() + orderUnits[orderNumber] > waveSizeUB || !state.fitsAllAisles(orderNumber)){
+                    continue;
+                }
+
+                state.addOrder(orderNumber);
+                taken[nTaken++] = orderNumber;
+
+                // Cover the items it is short of, ties by the shuffled rank; the oracle also drops the new aisles that end up redundant
+                boolean opened = oracle.extend(state, orderNumber) > 0;
+                // A new aisle may make older ones redundant, the check is limited to those stocking the items of this order
+                if(opened){
+                    currentStamp++;
+                    int nSharing = 0;
+                    for(int k = orderStart[orderNumber] ; k < orderStart[orderNumber + 1] ; k++){
+                        int item = orderItems[k];
+                        for(int j = itemAisleStart[item] ; j < itemAisleStart[item + 1] ; j++){
+                            int aisleNumber = itemAisles[j];
+                            if(stamp[aisleNumber] != currentStamp && state.isOpen(aisleNumber)){
+                                stamp[aisleNumber] = currentStamp;
+                                sharing[nSharing++] = aisleNumber;
+                            }
+                        }
+                    }
+                    sortByRank(sharing, nSharing, rank);
+                    for(int s = 0 ; s < nSharing ; s++){
+                        if(state.canClose(sharing[s])){
+                            state.closeAisle(sharing[s]);
+                        }
+                    }
+                }
+
+                int currentNumberOfItems = state.units();
+                if(
                     currentNumberOfItems >= waveSizeLB && (
                         bestNumberOfItems == 0 ||
-                        currentNumberOfItems * bestAisles.size() > bestNumberOfItems * ailes.size()
+                        (long) currentNumberOfItems * bestNumberOfAisles > (long) bestNumberOfItems * state.nOpen()
                     )
                 ){
-                        bestNumberOfItems = currentNumberOfItems;
-                        bestOrders = (TreeSet<Integer>)takedOrders.clone();
-                        bestAisles = (TreeSet<Integer>)ailes.clone();
+                    bestNumberOfItems = currentNumberOfItems;
+                    bestNumberOfAisles = state.nOpen();
+                    bestOrders = new TreeSet<>();
+                    for(int k = 0 ; k < nTaken ; k++){
+                        bestOrders.add(taken[k]);
+                    }
+                    bestAisles = new TreeSet<>();
+                    BitSet open = state.openAisles();
+                    for(int a = open.nextSetBit(0) ; a >= 0 ; a = open.nextSetBit(a + 1)){
+                        bestAisles.add(a);
+                    }
+                    incumbentHolder.offer(new ChallengeSolution(bestOrders, bestAisles),
+                            (double) bestNumberOfItems / bestNumberOfAisles, "heuristic");
                 }
             }
-            
-            Collections.shuffle(ordersIndexes);
-        }
-
-        return new ChallengeSolution(bestOrders, bestAisles);
-    }
-
-    private int getOrdersItemsSum(Set<Integer> selectedOrders){
-        var sum = 0;
 
-        for(var orderNumber: selectedOrders){
-            for(var entry: orders.get(orderNumber).entrySet()){
-                sum += entry.getValue();
+            if (event.shouldCommit()) {
+                event.restart = iteration;
+                event.units = bestNumberOfItems;
+                event.aisles = bestNumberOfAisles;
+                event.ratio = bestNumberOfAisles == 0 ? 0.0 : (double) bestNumberOfItems / bestNumberOfAisles;
+                event.commit();
             }
-        }
 
-        return sum;
-    }
-
-    private TreeSet<Integer> bestAislesToOrders(TreeSet<Integer> selectedOrders){
-        var orderItemsSum = new Integer[nItems];
-
-        for(int i = 0 ; i < nItems ; i++){
-            orderItemsSum[i] = 0;
-        }
-
-        for(var orderNumber: selectedOrders){
-            for(var entry: orders.get(orderNumber).entrySet()){
-                orderItemsSum[entry.getKey()] += entry.getValue();
-            }
+            Collections.shuffle(ordersIndexes);
+            Collections.shuffle(aislesIndexes);
         }
 
-        var bestAnswer = new TreeSet<Integer>();
-
-        for(int iteration = 0 ; iteration < 10 ; iteration++){
-            var aisleItemsSum = new Integer[nItems];
-            var takedAisles = new TreeSet<Integer>();
-
-            for(int i = 0 ; i < nItems ; i++){
-                aisleItemsSum[i] = 0;
-            }
-
-            for(int aisleNumber = 0 ; aisleNumber < aisles.size() ; aisleNumber++){
-                takedAisles.add(aisleNumber);
-    
-                for(var entry: aisles.get(aisleNumber).entrySet()){
-                    aisleItemsSum[entry.getKey()] += entry.getValue();
-                }
-            }
-
-            for(int item = 0 ; item < nItems ; item++){
-                if(aisleItemsSum[item] < orderItemsSum[item]){//Nenhuma solucao possivel, retorne vazio
-                    return new TreeSet<Integer>();
-                }
-            }
-
-            for(var aisleNumber: aislesIndexes){
-                var canRemove = true;
-
-                for(var entry: aisles.get(aisleNumber).entrySet()){
-                    if(aisleItemsSum[entry.getKey()] - entry.getValue() < orderItemsSum[entry.getKey()]){
-                        canRemove = false;
-                        break;
-                    }
-                }
-                
-                if(canRemove){
-                    for(var entry: aisles.get(aisleNumber).entrySet()){
-                        aisleItemsSum[entry.getKey()] -= entry.getValue();
-                    }
-
-                    takedAisles.remove(aisleNumber);
-                }
-            }
+        return new ChallengeSolution(bestOrders, bestAisles);
+    }
 
-            if(bestAnswer.size() == 0 || takedAisles.size() < bestAnswer.size()){
-                bestAnswer = (TreeSet<Integer>) takedAisles.clone();
+    /*
+     * Insertion sort of aisles[0..n) by rank, the lists only hold open aisles
+     */
+    private static void sortByRank(int[] aisles, int n, int[] rank) {
+        for(int i = 1 ; i < n ; i++){
+            int aisle = aisles[i];
+            int j = i - 1;
+            while(j >= 0 && rank[aisles[j]] > rank[aisle]){
+                aisles[j + 1] = aisles[j];
+                j--;
             }
-            
-            Collections.shuffle(aislesIndexes);
+            aisles[j + 1] = aisle;
         }
-
-        return bestAnswer;
     }
 }
@@ -0,0 +1,118 @@
+package org.sbpo2025.challenge;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+ * Best feasible solution shared by concurrent solvers. Updates are lock-free compare-and-set,
+ * a solution only replaces the current one when its ratio is strictly better.
+ * It also keeps the run statistics reported by BenchmarkRunner: when the first solution arrived,
+ * the time spent building MIP models and the best proven upper bound on the ratio.
+ * An optional listener sees every new incumbent, on the thread that offered it (IncumbentSink, or a holder
+ * working on another numbering of the instance).
+ */
+public class IncumbentHolder {
+    public record Incumbent(ChallengeSolution solution, double ratio, String source) {
+    }
+
+    private final AtomicReference<Incumbent> best = new AtomicReference<>();
+    private volatile boolean provenOptimal = false;
+    private final AtomicLong firstIncumbentNanos = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder modelBuildNanos = new LongAdder();
+    private final DoubleAccumulator upperBound = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+    private volatile Consumer<Incumbent> listener;
+
+    /*
+     * Returns true when the solution became the new incumbent
+     */
+    public boolean offer(ChallengeSolution solution, double ratio, String source) {
+        Incumbent candidate = new Incumbent(solution, ratio, source);
+        while (true) {
+            Incumbent current = best.get();
+            if (current != null && current.ratio() >= ratio) {
+                return false;
+            }
+            if (best.compareAndSet(current, candidate)) {
+                if (current == null) {
+                    firstIncumbentNanos.compareAndSet(Long.MIN_VALUE, System.nanoTime());
+                }
+                Consumer<Incumbent> improved = listener;
+                if (improved != null) {
+                    improved.accept(candidate);
+                }
+                return true;
+            }
+        }
+    }
+
+    /*
+     * Concurrent improvements may reach the listener out of order, it must keep the best ratio itself
+     */
+    public void setListener(Consumer<Incumbent> listener) {
+        this.listener = listener;
+    }
+
+    public Incumbent get() {
+        return best.get();
+    }
+
+    public double bestRatio() {
+        Incumbent current = best.get();
+        return current == null ? 0.0 : current.ratio();
+    }
+
+    /*
+     * Called by a solver that proved its last offered solution optimal
+     */
+    public void markOptimal() {
+        provenOptimal = true;
+    }
+
+    public boolean isProvenOptimal() {
+        return provenOptimal;
+    }
+
+    /*
+     * System.nanoTime() of the first accepted solution, Long.MIN_VALUE before it
+     */
+    public long firstIncumbentNanos() {
+        return firstIncumbentNanos.get();
+    }
+
+    public void recordModelBuild(long nanos) {
+        modelBuildNanos.add(nanos);
+    }
+
+    public double modelBuildSeconds() {
+        return modelBuildNanos.sum() / 1e9;
+    }
+
+    /*
+     * Offered by solvers that prove a bound on the best ratio of the whole instance, the smallest one is kept
+     */
+    public void offerUpperBound(double bound) {
+        upperBound.accumulate(bound);
+    }
+
+    /*
+     * Best proven bound on the ratio, +infinity when none was offered
+     */
+    public double upperBound() {
+        return upperBound.get();
+    }
+
+    /*
+     * Folds the statistics of a sub-solver holder in: model build time adds up, the earliest first solution wins
+     */
+    public void absorbStatistics(IncumbentHolder other) {
+        modelBuildNanos.add(other.modelBuildNanos.sum());
+        long first = other.firstIncumbentNanos();
+        if (first != Long.MIN_VALUE) {
+            firstIncumbentNanos.accumulateAndGet(first,
+                    (current, candidate) -> current == Long.MIN_VALUE ? candidate : Math.min(current, candidate));
+        }
+    }
+}
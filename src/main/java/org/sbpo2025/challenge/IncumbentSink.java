@@ -0,0 +1,160 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/*
+ * Anytime checkpoint of the output file: listens to an IncumbentHolder (original indexes) and writes each improving
+ * solution in the writeOutput format, atomically (temp file + rename), so a kill at any time leaves the best
+ * wave found so far on disk. Improvements only wake a background writer, which always writes the latest one,
+ * so a burst of heuristic improvements costs one write. A shutdown hook writes the pending one on SIGTERM.
+ * Every solution is checked with SolutionEvaluator before it is written.
+ * Disabled with -Dsbpo.checkpoint=false.
+ */
+public class IncumbentSink implements Consumer<IncumbentHolder.Incumbent>, AutoCloseable {
+    private final Path outputPath;
+    private final SolutionEvaluator evaluator;
+    private final Thread writer;
+    private final Thread shutdownHook;
+
+    // Serializes the check and write of flush() (and the evaluator); solver threads never wait on it
+    private final Object writeLock = new Object();
+    // Latest offered and last written incumbents, guarded by this
+    private IncumbentHolder.Incumbent pending;
+    private IncumbentHolder.Incumbent written;
+    private boolean closed = false;
+
+    public IncumbentSink(Instance instance, Path outputPath) {
+        this.outputPath = outputPath;
+        this.evaluator = new SolutionEvaluator(instance);
+        this.writer = new Thread(this::writeLoop, "incumbent-sink");
+        this.writer.setDaemon(true);
+        this.shutdownHook = new Thread(this::flush, "incumbent-sink-shutdown");
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("sbpo.checkpoint", "true"));
+    }
+
+    @Override
+    public synchronized void accept(IncumbentHolder.Incumbent incumbent) {
+        if (closed || (pending != null && pending.ratio() >= incumbent.ratio())) {
+            return;
+        }
+        pending = incumbent;
+        notifyAll();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            synchronized (this) {
+                while (!closed && !hasNewer()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+            }
+            flush();
+        }
+    }
+
+    private boolean hasNewer() {
+        return pending != null && (written == null || pending.ratio() > written.ratio());
+    }
+
+    /*
+     * Writes the pending incumbent when it beats the written one. Only the hand-over of pending and written holds
+     * the monitor that accept() takes, the check and the disk write happen outside it.
+     */
+    private void flush() {
+        synchronized (writeLock) {
+            IncumbentHolder.Incumbent incumbent;
+            synchronized (this) {
+                if (!hasNewer()) {
+                    return;
+                }
+                incumbent = pending;
+            }
+            if (!evaluator.isFeasible(incumbent.solution())) {
+                System.err.println("Checkpoint skipped, infeasible solution from " + incumbent.source());
+                discard(incumbent);
+                return;
+            }
+            SolverTrace.Span span = SolverTrace.start();
+            try {
+                Challenge.writeAtomically(incumbent.solution(), outputPath);
+            } catch (IOException e) {
+                System.err.println("Error writing checkpoint to " + outputPath);
+                e.printStackTrace();
+                discard(incumbent);
+                return;
+            }
+            synchronized (this) {
+                written = incumbent;
+            }
+            if (SolverTrace.ENABLED) {
+                SolverTrace.line("checkpoint", span).field("ratio", incumbent.ratio()).field("source", incumbent.source()).write();
+            }
+        }
+    }
+
+    /*
+     * Gives up on an incumbent that could not be written, unless a newer one replaced it meanwhile
+     */
+    private synchronized void discard(IncumbentHolder.Incumbent incumbent) {
+        if (pending == incumbent) {
+            pending = written;
+        }
+    }
+
+    /*
+     * Ratio of the last checkpoint, 0 when nothing was written
+     */
+    public synchronized double writtenRatio() {
+        return written == null ? 0.0 : written.ratio();
+    }
+
+    /*
+     * Last checkpoint when it beats the final solution (which may be infeasible or null), else the final solution
+     */
+    public ChallengeSolution best(ChallengeSolution solution) {
+        synchronized (writeLock) {
+            IncumbentHolder.Incumbent last;
+            synchronized (this) {
+                last = written;
+            }
+            if (last == null) {
+                return solution;
+            }
+            if (solution == null || !evaluator.isFeasible(solution) || evaluator.objective(solution) < last.ratio()) {
+                return last.solution();
+            }
+            return solution;
+        }
+    }
+
+    /*
+     * Writes what is pending and stops checkpointing, the final output is then written by the caller
+     */
+    @Override
+    public void close() {
+        flush();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, the hook runs anyway
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Immutable compressed-sparse-row view of an instance.
+ * Row r of orders (or aisles) spans [start[r], start[r + 1]) of the items/quantities arrays,
+ * sorted by item id with each item at most once. The arrays are shared, callers must not modify them.
+ */
+public final class Instance {
+    private final int nItems;
+    private final int waveSizeLB;
+    private final int waveSizeUB;
+
+    private final int[] orderStart;
+    private final int[] orderItems;
+    private final int[] orderQuantities;
+    private final int[] orderUnits;
+    private final long totalUnits;
+
+    private final int[] aisleStart;
+    private final int[] aisleItems;
+    private final int[] aisleQuantities;
+
+    private volatile ItemIndex itemIndex;
+
+    Instance(int nItems, int waveSizeLB, int waveSizeUB,
+             int[] orderStart, int[] orderItems, int[] orderQuantities,
+             int[] aisleStart, int[] aisleItems, int[] aisleQuantities) {
+        this.nItems = nItems;
+        this.waveSizeLB = waveSizeLB;
+        this.waveSizeUB = waveSizeUB;
+        this.orderStart = orderStart;
+        this.orderItems = orderItems;
+        this.orderQuantities = orderQuantities;
+        this.aisleStart = aisleStart;
+        this.aisleItems = aisleItems;
+        this.aisleQuantities = aisleQuantities;
+
+        int nOrders = orderStart.length - 1;
+        this.orderUnits = new int[nOrders];
+        long total = 0;
+        for (int o = 0; o < nOrders; o++) {
+            int units = 0;
+            for (int k = orderStart[o]; k < orderStart[o + 1]; k++) {
+                units += orderQuantities[k];
+            }
+            orderUnits[o] = units;
+            total += units;
+        }
+        this.totalUnits = total;
+    }
+
+    /*
+     * Adapter from the legacy List<Map<item, quantity>> representation
+     */
+    public static Instance fromMaps(List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles,
+                                    int nItems, int waveSizeLB, int waveSizeUB) {
+        Rows orderRows = new Rows(orders.size());
+        for (Map<Integer, Integer> order : orders) {
+            for (Map.Entry<Integer, Integer> entry : order.entrySet()) {
+                orderRows.add(entry.getKey(), entry.getValue());
+            }
+            orderRows.endRow();
+        }
+        Rows aisleRows = new Rows(aisles.size());
+        for (Map<Integer, Integer> aisle : aisles) {
+            for (Map.Entry<Integer, Integer> entry : aisle.entrySet()) {
+                aisleRows.add(entry.getKey(), entry.getValue());
+            }
+            aisleRows.endRow();
+        }
+        return new Instance(nItems, waveSizeLB, waveSizeUB,
+                orderRows.start(), orderRows.items(), orderRows.quantities(),
+                aisleRows.start(), aisleRows.items(), aisleRows.quantities());
+    }
+
+    /*
+     * Sub-instance with the given orders and aisles (in that order) and the items renumbered by itemMap;
+     * entries of items mapped to -1 are dropped
+     */
+    Instance restrict(int[] orders, int[] aisles, int[] itemMap, int nRestrictedItems) {
+        Rows orderRows = restrictRows(orders, orderStart, orderItems, orderQuantities, itemMap);
+        Rows aisleRows = restrictRows(aisles, aisleStart, aisleItems, aisleQuantities, itemMap);
+        return new Instance(nRestrictedItems, waveSizeLB, waveSizeUB,
+                orderRows.start(), orderRows.items(), orderRows.quantities(),
+                aisleRows.start(), aisleRows.items(), aisleRows.quantities());
+    }
+
+    private static Rows restrictRows(int[] rows, int[] start, int[] items, int[] quantities, int[] itemMap) {
+        Rows restricted = new Rows(rows.length);
+        for (int r : rows) {
+            for (int k = start[r]; k < start[r + 1]; k++) {
+                if (itemMap[items[k]] >= 0) {
+                    restricted.add(itemMap[items[k]], quantities[k]);
+                }
+            }
+            restricted.endRow();
+        }
+        return restricted;
+    }
+
+    /*
+     * Lexicographic order of two CSR rows: length first, then (item, quantity) pairs; 0 when identical
+     */
+    static int compareRows(int[] start, int[] items, int[] quantities, int a, int b) {
+        int lengthA = start[a + 1] - start[a];
+        int lengthB = start[b + 1] - start[b];
+        if (lengthA != lengthB) {
+            return Integer.compare(lengthA, lengthB);
+        }
+        for (int k = 0; k < lengthA; k++) {
+            int ka = start[a] + k;
+            int kb = start[b] + k;
+            if (items[ka] != items[kb]) {
+                return Integer.compare(items[ka], items[kb]);
+            }
+            if (quantities[ka] != quantities[kb]) {
+                return Integer.compare(quantities[ka], quantities[kb]);
+            }
+        }
+        return 0;
+    }
+
+    public int nOrders() {
+        return orderStart.length - 1;
+    }
+
+    public int nAisles() {
+        return aisleStart.length - 1;
+    }
+
+    public int nItems() {
+        return nItems;
+    }
+
+    public int waveSizeLB() {
+        return waveSizeLB;
+    }
+
+    public int waveSizeUB() {
+        return waveSizeUB;
+    }
+
+    public int[] orderStart() {
+        return orderStart;
+    }
+
+    public int[] orderItems() {
+        return orderItems;
+    }
+
+    public int[] orderQuantities() {
+        return orderQuantities;
+    }
+
+    /*
+     * Total units requested by each order
+     */
+    public int[] orderUnits() {
+        return orderUnits;
+    }
+
+    public long totalUnits() {
+        return totalUnits;
+    }
+
+    public int[] aisleStart() {
+        return aisleStart;
+    }
+
+    public int[] aisleItems() {
+        return aisleItems;
+    }
+
+    public int[] aisleQuantities() {
+        return aisleQuantities;
+    }
+
+    /*
+     * Item -> (order, quantity) and item -> (aisle, quantity) index, built on first use and shared afterwards
+     */
+    public ItemIndex itemIndex() {
+        ItemIndex index = itemIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = itemIndex;
+                if (index == null) {
+                    SolverEvents.IndexBuild event = new SolverEvents.IndexBuild();
+                    event.begin();
+                    SolverTrace.Span span = SolverTrace.start();
+                    index = ItemIndex.build(this);
+                    itemIndex = index;
+                    SolverTrace.phase("index", span);
+                    if (event.shouldCommit()) {
+                        event.orders = nOrders();
+                        event.items = nItems;
+                        event.aisles = nAisles();
+                        event.commit();
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Instance that)) {
+            return false;
+        }
+        return nItems == that.nItems && waveSizeLB == that.waveSizeLB && waveSizeUB == that.waveSizeUB
+                && Arrays.equals(orderStart, that.orderStart)
+                && Arrays.equals(orderItems, that.orderItems)
+                && Arrays.equals(orderQuantities, that.orderQuantities)
+                && Arrays.equals(aisleStart, that.aisleStart)
+                && Arrays.equals(aisleItems, that.aisleItems)
+                && Arrays.equals(aisleQuantities, that.aisleQuantities);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(orderItems);
+        result = 31 * result + Arrays.hashCode(orderQuantities);
+        result = 31 * result + Arrays.hashCode(aisleItems);
+        result = 31 * result + Arrays.hashCode(aisleQuantities);
+        return 31 * result + nItems;
+    }
+
+    /*
+     * Growable CSR buffer; each row is sorted by item id when it is closed, and an item listed twice keeps
+     * its last quantity like the HashMap loader and checker.py (map put) did
+     */
+    static final class Rows {
+        private final int[] start;
+        private int[] items;
+        private int[] quantities;
+        private int size;
+        private int rows;
+
+        Rows(int nRows) {
+            this.start = new int[nRows + 1];
+            this.items = new int[Math.max(16, 4 * nRows)];
+            this.quantities = new int[items.length];
+        }
+
+        void add(int item, int quantity) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, 2 * size);
+                quantities = Arrays.copyOf(quantities, 2 * size);
+            }
+            items[size] = item;
+            quantities[size] = quantity;
+            size++;
+        }
+
+        void endRow() {
+            int from = start[rows];
+            if (size - from > 32) {
+                sortPacked(from);
+            }
+            // Stable insertion sort keeps items and quantities aligned without boxing (linear on sorted rows)
+            for (int i = from + 1; i < size; i++) {
+                int item = items[i];
+                int quantity = quantities[i];
+                int j = i - 1;
+                while (j >= from && items[j] > item) {
+                    items[j + 1] = items[j];
+                    quantities[j + 1] = quantities[j];
+                    j--;
+                }
+                items[j + 1] = item;
+                quantities[j + 1] = quantity;
+            }
+            // Duplicates are adjacent and in input order now, the last one wins
+            int kept = from;
+            for (int i = from; i < size; i++) {
+                if (i + 1 < size && items[i + 1] == items[i]) {
+                    continue;
+                }
+                items[kept] = items[i];
+                quantities[kept] = quantities[i];
+                kept++;
+            }
+            size = kept;
+            start[++rows] = size;
+        }
+
+        /*
+         * Sorts by item, ties by position in the row so that the order of duplicates is kept
+         */
+        private void sortPacked(int from) {
+            int n = size - from;
+            long[] packed = new long[n];
+            for (int i = 0; i < n; i++) {
+                packed[i] = ((long) items[from + i] << 32) | i;
+            }
+            Arrays.sort(packed);
+            int[] rowQuantities = Arrays.copyOfRange(quantities, from, size);
+            for (int i = 0; i < n; i++) {
+                items[from + i] = (int) (packed[i] >>> 32);
+                quantities[from + i] = rowQuantities[(int) packed[i]];
+            }
+        }
+
+        int[] start() {
+            return rows + 1 == start.length ? start : Arrays.copyOf(start, rows + 1);
+        }
+
+        int[] items() {
+            return Arrays.copyOf(items, size);
+        }
+
+        int[] quantities() {
+            return Arrays.copyOf(quantities, size);
+        }
+    }
+}
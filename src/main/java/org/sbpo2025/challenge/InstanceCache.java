@@ -0,0 +1,136 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Pre-compiled binary form of an instance, stored next to the text file as <input>.bin.
+ *
+ * Layout (native byte order): magic, version, source hash (long), nItems, waveSizeLB, waveSizeUB,
+ * nOrders, orderNnz, nAisles, aisleNnz, then orderStart, orderItems, orderQuantities,
+ * aisleStart, aisleItems, aisleQuantities as int arrays.
+ * The hash of the text file is stored in the header, a cache whose hash differs is ignored.
+ */
+public final class InstanceCache {
+    private static final int MAGIC = 0x5342504f; // "SBPO"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 7 * 4;
+
+    private InstanceCache() {
+    }
+
+    public static Path cachePath(Path source) {
+        return source.resolveSibling(source.getFileName() + ".bin");
+    }
+
+    /*
+     * Returns the cached instance for the text file, or null when there is no cache or it is stale
+     */
+    public static Instance loadIfFresh(Path source) {
+        Path cache = cachePath(source);
+        if (!Files.isRegularFile(cache) || !Files.isRegularFile(source)) {
+            return null;
+        }
+        try {
+            return load(cache, contentHash(source));
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable instance cache " + cache);
+            return null;
+        }
+    }
+
+    static Instance load(Path cache, long expectedHash) throws IOException {
+        MappedByteBuffer buffer = map(cache, FileChannel.MapMode.READ_ONLY, 0);
+        buffer.order(ByteOrder.nativeOrder());
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getLong() != expectedHash) {
+            return null;
+        }
+        int nItems = buffer.getInt();
+        int waveSizeLB = buffer.getInt();
+        int waveSizeUB = buffer.getInt();
+        int nOrders = buffer.getInt();
+        int orderNnz = buffer.getInt();
+        int nAisles = buffer.getInt();
+        int aisleNnz = buffer.getInt();
+        long expectedBytes = HEADER_BYTES + 4L * (nOrders + 1 + 2L * orderNnz + nAisles + 1 + 2L * aisleNnz);
+        if (buffer.limit() != expectedBytes) {
+            return null;
+        }
+
+        IntBuffer ints = buffer.asIntBuffer();
+        int[] orderStart = next(ints, nOrders + 1);
+        int[] orderItems = next(ints, orderNnz);
+        int[] orderQuantities = next(ints, orderNnz);
+        int[] aisleStart = next(ints, nAisles + 1);
+        int[] aisleItems = next(ints, aisleNnz);
+        int[] aisleQuantities = next(ints, aisleNnz);
+        return new Instance(nItems, waveSizeLB, waveSizeUB,
+                orderStart, orderItems, orderQuantities, aisleStart, aisleItems, aisleQuantities);
+    }
+
+    public static void write(Instance instance, Path source) throws IOException {
+        Path cache = cachePath(source);
+        long hash = contentHash(source);
+        int orderNnz = instance.orderItems().length;
+        int aisleNnz = instance.aisleItems().length;
+        long bytes = HEADER_BYTES + 4L * (instance.nOrders() + 1 + 2L * orderNnz + instance.nAisles() + 1 + 2L * aisleNnz);
+
+        // Write to a temporary file first so a concurrent reader never sees a partial cache
+        Path temporary = Files.createTempFile(cache.toAbsolutePath().getParent(), cache.getFileName().toString(), ".tmp");
+        try {
+            MappedByteBuffer buffer = map(temporary, FileChannel.MapMode.READ_WRITE, bytes);
+            buffer.order(ByteOrder.nativeOrder());
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(hash);
+            buffer.putInt(instance.nItems()).putInt(instance.waveSizeLB()).putInt(instance.waveSizeUB());
+            buffer.putInt(instance.nOrders()).putInt(orderNnz).putInt(instance.nAisles()).putInt(aisleNnz);
+
+            IntBuffer ints = buffer.asIntBuffer();
+            ints.put(instance.orderStart()).put(instance.orderItems()).put(instance.orderQuantities());
+            ints.put(instance.aisleStart()).put(instance.aisleItems()).put(instance.aisleQuantities());
+            buffer.force();
+            Challenge.moveAtomically(temporary, cache);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /*
+     * 64-bit FNV-1a style hash over the file, consumed eight bytes at a time
+     */
+    static long contentHash(Path source) throws IOException {
+        MappedByteBuffer buffer = map(source, FileChannel.MapMode.READ_ONLY, 0);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        long hash = 0xcbf29ce484222325L;
+        while (buffer.remaining() >= 8) {
+            hash = (hash ^ buffer.getLong()) * 0x100000001b3L;
+        }
+        while (buffer.hasRemaining()) {
+            hash = (hash ^ buffer.get()) * 0x100000001b3L;
+        }
+        return hash ^ buffer.limit();
+    }
+
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode, long size) throws IOException {
+        if (mode == FileChannel.MapMode.READ_ONLY) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(mode, 0, channel.size());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    private static int[] next(IntBuffer ints, int length) {
+        int[] values = new int[length];
+        ints.get(values);
+        return values;
+    }
+}
@@ -0,0 +1,85 @@
+package org.sbpo2025.challenge;
+
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Transposed (item -> order, item -> aisle) view of an Instance in CSR form.
+ * The entries of item i span [orderStart[i], orderStart[i + 1]) of orders/orderQuantities
+ * and [aisleStart[i], aisleStart[i + 1]) of aisles/aisleQuantities, in increasing row order.
+ * Built once per instance, see Instance.itemIndex(). The arrays are shared, callers must not modify them.
+ */
+public final class ItemIndex {
+    private final int[] orderStart;
+    private final int[] orders;
+    private final int[] orderQuantities;
+    private final int[] aisleStart;
+    private final int[] aisles;
+    private final int[] aisleQuantities;
+
+    private ItemIndex(int[][] orderSide, int[][] aisleSide) {
+        this.orderStart = orderSide[0];
+        this.orders = orderSide[1];
+        this.orderQuantities = orderSide[2];
+        this.aisleStart = aisleSide[0];
+        this.aisles = aisleSide[1];
+        this.aisleQuantities = aisleSide[2];
+    }
+
+    static ItemIndex build(Instance instance) {
+        // The two sides are independent, build the aisle side on another core
+        CompletableFuture<int[][]> aisleSide = CompletableFuture.supplyAsync(() -> transpose(
+                instance.nItems(), instance.aisleStart(), instance.aisleItems(), instance.aisleQuantities()));
+        int[][] orderSide = transpose(
+                instance.nItems(), instance.orderStart(), instance.orderItems(), instance.orderQuantities());
+        return new ItemIndex(orderSide, aisleSide.join());
+    }
+
+    private static int[][] transpose(int nItems, int[] rowStart, int[] rowItems, int[] rowQuantities) {
+        int nRows = rowStart.length - 1;
+        int nnz = rowItems.length;
+        int[] start = new int[nItems + 1];
+        for (int k = 0; k < nnz; k++) {
+            start[rowItems[k] + 1]++;
+        }
+        for (int i = 0; i < nItems; i++) {
+            start[i + 1] += start[i];
+        }
+
+        int[] next = new int[nItems];
+        System.arraycopy(start, 0, next, 0, nItems);
+        int[] rows = new int[nnz];
+        int[] quantities = new int[nnz];
+        for (int r = 0; r < nRows; r++) {
+            for (int k = rowStart[r]; k < rowStart[r + 1]; k++) {
+                int position = next[rowItems[k]]++;
+                rows[position] = r;
+                quantities[position] = rowQuantities[k];
+            }
+        }
+        return new int[][]{start, rows, quantities};
+    }
+
+    public int[] orderStart() {
+        return orderStart;
+    }
+
+    public int[] orders() {
+        return orders;
+    }
+
+    public int[] orderQuantities() {
+        return orderQuantities;
+    }
+
+    public int[] aisleStart() {
+        return aisleStart;
+    }
+
+    public int[] aisles() {
+        return aisles;
+    }
+
+    public int[] aisleQuantities() {
+        return aisleQuantities;
+    }
+}
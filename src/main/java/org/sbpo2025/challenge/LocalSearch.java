@@ -0,0 +1,328 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+/*
+ * Improvement stage for any feasible wave. Moves, all checked against the per-item slack of AisleCoverState
+ * so a move costs O(items of the orders/aisles involved):
+ *  - add: an unselected order that fits in the slack of the open aisles
+ *  - drop: an open aisle whose stock is not needed by the selected orders
+ *  - swap: replace a selected order by a bigger unselected one that fits once the first is removed
+ *  - re-cover: AisleCoverOracle covers the selected orders from scratch and its aisle set replaces the open
+ *    one when it is smaller; it costs O(orders) so only local optima better than the best wave try it
+ * At a local optimum a random closed aisle is opened, a random order dropped and the descent resumes; a worse result goes back
+ * to the best wave. Runs until the remaining time reaches reserveSeconds, maxStall kicks in a row bring no better
+ * wave (-Dsbpo.localsearch.maxStall) or it is cancelled.
+ * Each new best wave is offered to the incumbent holder when one is set, so checkpoints follow the search.
+ * Disabled with -Dsbpo.localsearch=false.
+ */
+public class LocalSearch {
+    private final long maxRuntime = TimeLimit.millis(); // milliseconds; 10 minutes by default
+    private static final long DEFAULT_MAX_STALL = 3000000; // kicks
+
+    private final Instance instance;
+    private final int waveSizeUB;
+    private final AisleCoverState state;
+    private final boolean[] selected;
+    private final AisleCoverOracle oracle;
+    private final int[] orderBuffer;
+    private final long maxStall = Long.getLong("sbpo.localsearch.maxStall", DEFAULT_MAX_STALL);
+    private final Random random = new Random(0);
+    private volatile boolean cancelled = false;
+    private IncumbentHolder incumbentHolder;
+
+    private int moves = 0;
+
+    public LocalSearch(Instance instance) {
+        this.instance = instance;
+        this.waveSizeUB = instance.waveSizeUB();
+        this.state = new AisleCoverState(instance);
+        this.selected = new boolean[instance.nOrders()];
+        this.oracle = new AisleCoverOracle(instance);
+        this.orderBuffer = new int[instance.nOrders()];
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("sbpo.localsearch", "true"));
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public void setIncumbentHolder(IncumbentHolder incumbentHolder) {
+        this.incumbentHolder = incumbentHolder;
+    }
+
+    /*
+     * Returns the best wave found, the given one when it is not feasible or cannot be improved
+     */
+    public ChallengeSolution improve(ChallengeSolution solution, StopWatch stopWatch, long reserveSeconds) {
+        SolverTrace.Span span = SolverTrace.start();
+        if (!load(solution)) {
+            return solution;
+        }
+        int nOrders = instance.nOrders();
+        int nAisles = instance.nAisles();
+        int startUnits = state.units();
+        int startAisles = state.nOpen();
+
+        descendAndRecover(stopWatch, reserveSeconds);
+        boolean[] bestOrders = selected.clone();
+        boolean[] bestAisles = openAisles();
+        int bestUnits = state.units();
+        int bestNumberOfAisles = state.nOpen();
+        offer(bestOrders, bestAisles, bestUnits, bestNumberOfAisles);
+        int kicks = 0;
+        long stall = 0;
+
+        while (!cancelled && getRemainingTime(stopWatch) > reserveSeconds && state.nOpen() < nAisles
+                && stall < maxStall) {
+            int aisle = random.nextInt(nAisles);
+            while (state.isOpen(aisle)) {
+                aisle = random.nextInt(nAisles);
+            }
+            state.openAisle(aisle);
+            // Also give up a random order so that the descent can fill the wave differently
+            int order = random.nextInt(nOrders);
+            if (selected[order] && state.units() - instance.orderUnits()[order] >= instance.waveSizeLB()) {
+                selected[order] = false;
+                state.removeOrder(order);
+            }
+            descend(stopWatch, reserveSeconds);
+            kicks++;
+
+            long current = (long) state.units() * bestNumberOfAisles;
+            long best = (long) bestUnits * state.nOpen();
+            if (current > best && recoverAisles()) {
+                descend(stopWatch, reserveSeconds);
+                current = (long) state.units() * bestNumberOfAisles;
+                best = (long) bestUnits * state.nOpen();
+            }
+            if (current > best) {
+                bestOrders = selected.clone();
+                bestAisles = openAisles();
+                bestUnits = state.units();
+                bestNumberOfAisles = state.nOpen();
+                offer(bestOrders, bestAisles, bestUnits, bestNumberOfAisles);
+                stall = 0;
+            } else {
+                stall++;
+                if (current < best) {
+                    restore(bestOrders, bestAisles);
+                }
+            }
+        }
+
+        if (SolverTrace.ENABLED) {
+            SolverTrace.line("local search moves", span).field("startUnits", startUnits).field("startAisles", startAisles)
+                    .field("units", bestUnits).field("aisles", bestNumberOfAisles)
+                    .field("moves", moves).field("kicks", kicks).write();
+        }
+        if ((long) bestUnits * startAisles <= (long) startUnits * bestNumberOfAisles) {
+            return solution;
+        }
+        return toSolution(bestOrders, bestAisles);
+    }
+
+    /*
+     * The holder ignores waves that are not better than its incumbent
+     */
+    private void offer(boolean[] orders, boolean[] aisles, int units, int numberOfAisles) {
+        if (incumbentHolder != null && (double) units / numberOfAisles > incumbentHolder.bestRatio()) {
+            incumbentHolder.offer(toSolution(orders, aisles), (double) units / numberOfAisles, "local search");
+        }
+    }
+
+    private static ChallengeSolution toSolution(boolean[] selectedOrders, boolean[] openAisles) {
+        Set<Integer> orders = new TreeSet<>();
+        for (int o = 0; o < selectedOrders.length; o++) {
+            if (selectedOrders[o]) {
+                orders.add(o);
+            }
+        }
+        Set<Integer> aisles = new TreeSet<>();
+        for (int a = 0; a < openAisles.length; a++) {
+            if (openAisles[a]) {
+                aisles.add(a);
+            }
+        }
+        return new ChallengeSolution(orders, aisles);
+    }
+
+    private boolean load(ChallengeSolution solution) {
+        if (solution == null || solution.orders() == null || solution.aisles() == null
+                || solution.orders().isEmpty() || solution.aisles().isEmpty()) {
+            return false;
+        }
+        state.clear();
+        Arrays.fill(selected, false);
+        for (int order : solution.orders()) {
+            selected[order] = true;
+            state.addOrder(order);
+        }
+        for (int aisle : solution.aisles()) {
+            state.openAisle(aisle);
+        }
+        return state.isCovered() && state.units() >= instance.waveSizeLB() && state.units() <= waveSizeUB;
+    }
+
+    private void restore(boolean[] orders, boolean[] aisles) {
+        state.clear();
+        for (int o = 0; o < orders.length; o++) {
+            selected[o] = orders[o];
+            if (orders[o]) {
+                state.addOrder(o);
+            }
+        }
+        for (int a = 0; a < aisles.length; a++) {
+            if (aisles[a]) {
+                state.openAisle(a);
+            }
+        }
+    }
+
+    private boolean[] openAisles() {
+        boolean[] open = new boolean[instance.nAisles()];
+        for (int a = state.openAisles().nextSetBit(0); a >= 0; a = state.openAisles().nextSetBit(a + 1)) {
+            open[a] = true;
+        }
+        return open;
+    }
+
+    /*
+     * Applies improving moves until none is left; adds and drops first, swaps only when they are exhausted
+     */
+    private void descend(StopWatch stopWatch, long reserveSeconds) {
+        boolean improved = true;
+        while (improved && !cancelled && getRemainingTime(stopWatch) > reserveSeconds) {
+            improved = addOrders();
+            improved |= dropAisles();
+            if (!improved) {
+                improved = swapOrders();
+            }
+
+        }
+    }
+
+    private boolean addOrders() {
+        int[] orderUnits = instance.orderUnits();
+        boolean improved = false;
+        int nOrders = instance.nOrders();
+        int offset = random.nextInt(nOrders);
+        for (int i = 0; i < nOrders; i++) {
+            int order = (offset + i) % nOrders;
+            if (!selected[order] && state.units() + orderUnits[order] <= waveSizeUB && state.fits(order)) {
+                selected[order] = true;
+                state.addOrder(order);
+                moves++;
+                improved = true;
+            }
+        }
+        return improved;
+    }
+
+    private boolean dropAisles() {
+        boolean improved = false;
+        int nAisles = instance.nAisles();
+        int offset = random.nextInt(nAisles);
+        for (int i = 0; i < nAisles && state.nOpen() > 1; i++) {
+            int aisle = (offset + i) % nAisles;
+            if (state.isOpen(aisle) && state.canClose(aisle)) {
+                state.closeAisle(aisle);
+                moves++;
+                improved = true;
+            }
+        }
+        return improved;
+    }
+
+    private void descendAndRecover(StopWatch stopWatch, long reserveSeconds) {
+        descend(stopWatch, reserveSeconds);
+        while (!cancelled && recoverAisles()) {
+            descend(stopWatch, reserveSeconds);
+        }
+    }
+
+    /*
+     * Returns true when the oracle's cover replaced the open aisles
+     */
+    private boolean recoverAisles() {
+        int nSelected = 0;
+        for (int o = 0; o < selected.length; o++) {
+            if (selected[o]) {
+                orderBuffer[nSelected++] = o;
+            }
+        }
+        int nAisles = oracle.cover(orderBuffer, nSelected);
+        if (nAisles <= 0 || nAisles >= state.nOpen()) {
+            return false;
+        }
+        BitSet open = state.openAisles();
+        for (int a = open.nextSetBit(0); a >= 0; a = open.nextSetBit(a + 1)) {
+            state.closeAisle(a);
+        }
+        for (int k = 0; k < nAisles; k++) {
+            state.openAisle(oracle.aisles()[k]);
+        }
+        moves++;
+        return true;
+    }
+
+    /*
+     * Only selected orders holding the first short item of the candidate can make room for it
+     */
+    private boolean swapOrders() {
+        int[] orderUnits = instance.orderUnits();
+        ItemIndex itemIndex = instance.itemIndex();
+        int[] itemOrderStart = itemIndex.orderStart();
+        int[] itemOrders = itemIndex.orders();
+        boolean improved = false;
+        int nOrders = instance.nOrders();
+        int offset = random.nextInt(nOrders);
+        for (int i = 0; i < nOrders; i++) {
+            int candidate = (offset + i) % nOrders;
+            if (selected[candidate]) {
+                continue;
+            }
+            int item = state.firstShortItem(candidate);
+            if (item < 0) {
+                continue;
+            }
+            for (int k = itemOrderStart[item]; k < itemOrderStart[item + 1]; k++) {
+                int order = itemOrders[k];
+                if (!selected[order] || orderUnits[order] >= orderUnits[candidate]
+                        || state.units() - orderUnits[order] + orderUnits[candidate] > waveSizeUB) {
+                    continue;
+                }
+                state.removeOrder(order);
+                if (state.fits(candidate)) {
+                    selected[order] = false;
+                    selected[candidate] = true;
+                    state.addOrder(candidate);
+                    moves++;
+                    improved = true;
+                    break;
+                }
+                state.addOrder(order);
+            }
+        }
+        return improved;
+    }
+
+    /*
+     * Get the remaining time in seconds
+     */
+    private long getRemainingTime(StopWatch stopWatch) {
+        return Math.max(
+                TimeUnit.SECONDS.convert(maxRuntime - stopWatch.getTime(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS),
+                0);
+    }
+}
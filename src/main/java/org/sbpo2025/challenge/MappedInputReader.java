@@ -0,0 +1,78 @@
+package org.sbpo2025.challenge;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Reads the non-negative integers of an instance (or solution) file straight from a memory-mapped buffer.
+ * No String, String[] or boxed Integer is created while scanning. Values are separated by whitespace only,
+ * anything else fails with an IOException naming the byte offset.
+ */
+final class MappedInputReader {
+    private final MappedByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    private MappedInputReader(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+        this.position = 0;
+    }
+
+    static MappedInputReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new MappedInputReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /*
+     * Next whitespace-separated non-negative integer. Any other byte (a sign, a letter, a decimal point) or an
+     * int overflow is rejected, and so is the end of the file: every caller reads a known number of values.
+     * The messages give the byte offset in the file.
+     */
+    int nextInt() throws IOException {
+        byte b = skipSeparators();
+        int start = position - 1;
+        int value = 0;
+        while (true) {
+            if (b < '0' || b > '9') {
+                throw new IOException("Unexpected byte " + describe(b) + " at offset " + (position - 1));
+            }
+            int digit = b - '0';
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                throw new IOException("Integer too large at offset " + start);
+            }
+            value = value * 10 + digit;
+            if (position == limit) {
+                return value;
+            }
+            b = buffer.get(position++);
+            if (isSeparator(b)) {
+                return value;
+            }
+        }
+    }
+
+    private byte skipSeparators() throws IOException {
+        while (position < limit) {
+            byte b = buffer.get(position++);
+            if (!isSeparator(b)) {
+                return b;
+            }
+        }
+        throw new EOFException("Unexpected end of file at offset " + limit + ", a value is missing");
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static String describe(byte b) {
+        return b >= 0x20 && b < 0x7f ? "'" + (char) b + "'" : String.format("0x%02x", b & 0xff);
+    }
+}
@@ -0,0 +1,135 @@
+package org.sbpo2025.challenge;
+
+/*
+ * Minimal MIP engine interface used by the solvers and by DinkelbachDriver.
+ * Variables are referred to by the index returned when they are created, constraints by a handle.
+ * The objective is always maximized. Engine failures surface as MipBackendException.
+ * Only CplexBackend touches the CPLEX classes and it is loaded by name, so the other backends run (and the
+ * project builds, without the cplex Maven profile) on machines without a CPLEX install.
+ */
+public interface MipBackend extends AutoCloseable {
+    double INFINITY = Double.MAX_VALUE;
+
+    enum Status {
+        OPTIMAL, FEASIBLE, INFEASIBLE, UNKNOWN;
+
+        public boolean hasSolution() {
+            return this == OPTIMAL || this == FEASIBLE;
+        }
+    }
+
+    /*
+     * Backend selected by -Dsbpo.mip=cplex|java, CPLEX by default
+     */
+    static MipBackend create() {
+        if ("java".equalsIgnoreCase(System.getProperty("sbpo.mip"))) {
+            return new BranchAndBoundBackend();
+        }
+        try {
+            return (MipBackend) Class.forName("org.sbpo2025.challenge.CplexBackend").getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException | NoClassDefFoundError e) {
+            throw new MipBackendException("CPLEX backend not available (build with the cplex profile and cplex.jar"
+                    + " on the classpath, or run with -Dsbpo.mip=java)");
+        } catch (ReflectiveOperationException e) {
+            throw new MipBackendException(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    /*
+     * Creates count variables and returns their indexes
+     */
+    int[] addVariables(int count, double lb, double ub, boolean integer);
+
+    /*
+     * One variable per entry of lb/ub
+     */
+    default int[] addVariables(double[] lb, double[] ub, boolean integer) {
+        int[] indexes = new int[lb.length];
+        for (int k = 0; k < lb.length; k++) {
+            indexes[k] = addVariables(1, lb[k], ub[k], integer)[0];
+        }
+        return indexes;
+    }
+
+    /*
+     * Adds lb <= sum(coefficients[k] * vars[k]) <= ub and returns its handle
+     */
+    int addConstraint(int[] vars, double[] coefficients, double lb, double ub);
+
+    default int addLessEqual(int[] vars, double[] coefficients, double rhs) {
+        return addConstraint(vars, coefficients, -INFINITY, rhs);
+    }
+
+    default int addGreaterEqual(int[] vars, double[] coefficients, double rhs) {
+        return addConstraint(vars, coefficients, rhs, INFINITY);
+    }
+
+    void removeConstraint(int handle);
+
+    /*
+     * Replaces the objective with maximize sum(coefficients[k] * vars[k])
+     */
+    void setObjective(int[] vars, double[] coefficients);
+
+    /*
+     * Changes the objective coefficients of vars in place, the other terms are kept
+     */
+    void setObjectiveCoefficients(int[] vars, double[] coefficients);
+
+    void setRelativeGapTolerance(double gap);
+
+    /*
+     * Engine tuning hints; a backend without the matching setting ignores them
+     */
+
+    /*
+     * Threads of a solve, 0 keeps the engine default
+     */
+    void setThreads(int threads);
+
+    /*
+     * Turns the engine's progress log off
+     */
+    void setQuiet(boolean quiet);
+
+    /*
+     * Caps the memory of the branch and bound tree, 0 keeps the engine default
+     */
+    void setTreeMemoryLimit(int megabytes);
+
+    /*
+     * Re-solves after an objective change start the root relaxation from the dual simplex
+     */
+    void useDualSimplexAtRoot();
+
+    /*
+     * Offers a complete solution as starting incumbent for the next solve, replacing any previous start
+     */
+    void setMipStart(int[] vars, double[] values);
+
+    Status solve(double timeLimitSeconds);
+
+    double getObjectiveValue();
+
+    double getRelativeGap();
+
+    /*
+     * Best bound of the (maximization) objective proven by the last solve, +infinity when it proved none
+     */
+    double getBestBound();
+
+    /*
+     * Seconds from the start of the last solve until it had an incumbent, NaN when it found none
+     */
+    double getTimeToFirstIncumbent();
+
+    double[] getValues(int[] vars);
+
+    /*
+     * Stops a running solve from another thread, the backend then keeps refusing to solve
+     */
+    void abort();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,16 @@
+package org.sbpo2025.challenge;
+
+/*
+ * Unchecked wrapper for failures inside a MipBackend engine
+ */
+public class MipBackendException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MipBackendException(String message) {
+        super(message);
+    }
+
+    public MipBackendException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,167 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Groups identical orders (same item -> quantity row) so the models see one variable per group instead of
+ * many interchangeable binaries. Two shapes:
+ *  - multiplicity: one integer variable per group, bounded by the group size
+ *  - binary split: each group of m orders becomes binary rows of 1, 2, 4, ... copies plus the remainder,
+ *    every row holding the summed quantities of its copies
+ * Rows of aggregated() keep the aisles and items of the original instance; expand() maps variable values back.
+ * Disabled with -Dsbpo.aggregate=false (every order is then its own group).
+ */
+public class OrderAggregator {
+    private final Instance original;
+    private final Instance aggregated;
+    // Original orders behind each aggregated row, and how many of them one unit of the row's variable stands for
+    private final int[][] members;
+    private final int[] copiesPerUnit;
+    private final double[] upperBounds;
+
+    public OrderAggregator(Instance instance, boolean binarySplit) {
+        this.original = instance;
+        int nOrders = instance.nOrders();
+        int[] orderStart = instance.orderStart();
+        int[] orderItems = instance.orderItems();
+        int[] orderQuantities = instance.orderQuantities();
+
+        boolean aggregate = enabled();
+        Integer[] sorted = new Integer[nOrders];
+        for (int o = 0; o < nOrders; o++) {
+            sorted[o] = o;
+        }
+        if (aggregate) {
+            // Identical rows end up next to each other; ties keep the original order
+            Arrays.sort(sorted, (a, b) -> compareRows(instance, a, b));
+        }
+
+        Instance.Rows rows = new Instance.Rows(nOrders);
+        int[][] groups = new int[nOrders][];
+        int[] copies = new int[nOrders];
+        double[] bounds = new double[nOrders];
+        int nRows = 0;
+        for (int first = 0; first < nOrders; ) {
+            int last = first + 1;
+            while (aggregate && last < nOrders && compareRows(instance, sorted[first], sorted[last]) == 0) {
+                last++;
+            }
+            int representative = sorted[first];
+            int size = last - first;
+            if (!binarySplit) {
+                appendRow(rows, orderStart, orderItems, orderQuantities, representative, 1);
+                groups[nRows] = members(sorted, first, last);
+                copies[nRows] = 1;
+                bounds[nRows++] = size;
+            } else {
+                int next = first;
+                for (int chunk = 1; next < last; chunk *= 2) {
+                    int take = Math.min(chunk, last - next);
+                    appendRow(rows, orderStart, orderItems, orderQuantities, representative, take);
+                    groups[nRows] = members(sorted, next, next + take);
+                    copies[nRows] = take;
+                    bounds[nRows++] = 1;
+                    next += take;
+                }
+            }
+            first = last;
+        }
+
+        if (nRows == nOrders) {
+            // No duplicates, keep the original instance (and its item index)
+            for (int o = 0; o < nOrders; o++) {
+                groups[o] = new int[]{o};
+            }
+            Arrays.fill(copies, 1);
+            Arrays.fill(bounds, 1);
+            this.aggregated = instance;
+        } else {
+            this.aggregated = new Instance(instance.nItems(), instance.waveSizeLB(), instance.waveSizeUB(),
+                    rows.start(), rows.items(), rows.quantities(),
+                    instance.aisleStart(), instance.aisleItems(), instance.aisleQuantities());
+        }
+        this.members = Arrays.copyOf(groups, nRows);
+        this.copiesPerUnit = Arrays.copyOf(copies, nRows);
+        this.upperBounds = Arrays.copyOf(bounds, nRows);
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("sbpo.aggregate", "true"));
+    }
+
+    private static int compareRows(Instance instance, int a, int b) {
+        return Instance.compareRows(instance.orderStart(), instance.orderItems(), instance.orderQuantities(), a, b);
+    }
+
+    private static void appendRow(Instance.Rows rows, int[] orderStart, int[] orderItems, int[] orderQuantities,
+                                  int order, int copies) {
+        for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+            rows.add(orderItems[k], copies * orderQuantities[k]);
+        }
+        rows.endRow();
+    }
+
+    private static int[] members(Integer[] sorted, int from, int to) {
+        int[] orders = new int[to - from];
+        for (int k = from; k < to; k++) {
+            orders[k - from] = sorted[k];
+        }
+        return orders;
+    }
+
+    public Instance aggregated() {
+        return aggregated;
+    }
+
+    /*
+     * Whether no orders were grouped, aggregated() is then the original instance
+     */
+    public boolean isIdentity() {
+        return aggregated == original;
+    }
+
+    /*
+     * Upper bound of each aggregated row's variable, 1 for binary rows
+     */
+    public double[] upperBounds() {
+        return upperBounds;
+    }
+
+    /*
+     * Original orders selected by the values of the aggregated variables
+     */
+    public Set<Integer> expand(double[] values) {
+        Set<Integer> orders = new HashSet<>();
+        for (int r = 0; r < values.length; r++) {
+            int count = (int) Math.round(values[r]) * copiesPerUnit[r];
+            for (int k = 0; k < count && k < members[r].length; k++) {
+                orders.add(members[r][k]);
+            }
+        }
+        return orders;
+    }
+
+    /*
+     * Variable values selecting the given original orders, the inverse of expand(). With binary split a row
+     * only counts when all of its copies are selected.
+     */
+    public double[] compress(Set<Integer> orders) {
+        double[] values = new double[members.length];
+        for (int r = 0; r < members.length; r++) {
+            int count = 0;
+            for (int order : members[r]) {
+                if (orders.contains(order)) {
+                    count++;
+                }
+            }
+            values[r] = count / copiesPerUnit[r];
+        }
+        return values;
+    }
+
+    public String report() {
+        return "Aggregated orders " + original.nOrders() + " -> " + aggregated.nOrders();
+    }
+}
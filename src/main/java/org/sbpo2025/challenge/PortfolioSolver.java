@@ -0,0 +1,115 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+/*
+ * Runs the exact MIP, the slice MIP and the randomized heuristic at the same time under one stopwatch.
+ * They publish to a shared IncumbentHolder; once one of them proves optimality the others are cancelled.
+ * Selected with -Dsbpo.solver=portfolio.
+ */
+public class PortfolioSolver implements WaveSolver {
+    private final Instance instance;
+    private IncumbentHolder incumbentHolder = new IncumbentHolder();
+    private final List<WaveSolver> members = new ArrayList<>();
+
+    public PortfolioSolver(Instance instance) {
+        this.instance = instance;
+    }
+
+    @Override
+    public void setIncumbentHolder(IncumbentHolder incumbentHolder) {
+        this.incumbentHolder = incumbentHolder;
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (members) {
+            for (WaveSolver member : members) {
+                member.cancel();
+            }
+        }
+    }
+
+    @Override
+    public ChallengeSolution solve(StopWatch stopWatch) {
+        ChallengeSolver exact = new ChallengeSolver(instance);
+        SliceChallengeSolver slice = new SliceChallengeSolver(instance);
+        HeuristicChallengeSolver heuristic = new HeuristicChallengeSolver(instance);
+        SolutionEvaluator evaluator = new SolutionEvaluator(instance);
+
+        // The two MIP members share the cores, the heuristic keeps one for itself
+        int mipThreads = Math.max(1, (Runtime.getRuntime().availableProcessors() - 1) / 2);
+        exact.setMipThreads(mipThreads);
+        slice.setMipThreads(mipThreads);
+
+        List<Callable<ChallengeSolution>> tasks = List.of(
+                () -> exact.solveExact(stopWatch),
+                () -> slice.solve(stopWatch),
+                () -> heuristic.solve(stopWatch));
+        List<String> names = List.of("exact", "slice", "heuristic");
+        synchronized (members) {
+            members.clear();
+            members.addAll(List.of(exact, slice, heuristic));
+            for (WaveSolver member : members) {
+                member.setIncumbentHolder(incumbentHolder);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CompletionService<ChallengeSolution> completion = new ExecutorCompletionService<>(executor);
+        List<Future<ChallengeSolution>> futures = new ArrayList<>();
+        for (Callable<ChallengeSolution> task : tasks) {
+            futures.add(completion.submit(task));
+        }
+
+        try {
+            for (int done = 0; done < tasks.size(); done++) {
+                Future<ChallengeSolution> finished = completion.take();
+                String name = names.get(futures.indexOf(finished));
+                try {
+                    ChallengeSolution solution = finished.get();
+                    // Final answers are checked, a cancelled member may return a partial one
+                    if (solution != null && evaluator.isFeasible(solution)) {
+                        incumbentHolder.offer(solution, evaluator.objective(solution), name);
+                    }
+                } catch (ExecutionException e) {
+                    System.err.println("Portfolio member " + name + " failed");
+                    e.getCause().printStackTrace();
+                }
+                if (incumbentHolder.isProvenOptimal()) {
+                    cancel();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        IncumbentHolder.Incumbent best = incumbentHolder.get();
+        if (best == null) {
+            return new ChallengeSolution(new HashSet<>(), new HashSet<>());
+        }
+        System.out.println("Portfolio best ratio " + best.ratio() + " from " + best.source()
+                + (incumbentHolder.isProvenOptimal() ? " (optimal)" : ""));
+        return best.solution();
+    }
+}
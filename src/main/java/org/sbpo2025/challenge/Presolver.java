@@ -0,0 +1,123 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+ * Shrinks an instance before any model is built:
+ *  - orders with more units than waveSizeUB, or asking an item for more than all aisles together stock
+ *  - items no remaining order asks for (their constraints always hold)
+ *  - aisles that only stock such items (they never help the ratio)
+ * Removed aisles only hold removed items, so one pass is enough. Solutions of reduced() are mapped
+ * back with restore(). Disabled with -Dsbpo.presolve=false.
+ */
+public class Presolver {
+    private final Instance original;
+    private final Instance reduced;
+    // Reduced index -> original index
+    private final int[] orderMap;
+    private final int[] aisleMap;
+
+    public Presolver(Instance instance) {
+        this.original = instance;
+        int nOrders = instance.nOrders();
+        int nAisles = instance.nAisles();
+        int nItems = instance.nItems();
+        int[] orderStart = instance.orderStart();
+        int[] orderItems = instance.orderItems();
+        int[] orderQuantities = instance.orderQuantities();
+        int[] orderUnits = instance.orderUnits();
+        int[] aisleStart = instance.aisleStart();
+        int[] aisleItems = instance.aisleItems();
+        int[] aisleQuantities = instance.aisleQuantities();
+
+        long[] totalSupply = new long[nItems];
+        for (int k = 0; k < aisleItems.length; k++) {
+            totalSupply[aisleItems[k]] += aisleQuantities[k];
+        }
+
+        int[] orders = new int[nOrders];
+        int nKeptOrders = 0;
+        boolean[] ordered = new boolean[nItems];
+        for (int o = 0; o < nOrders; o++) {
+            boolean coverable = orderUnits[o] <= instance.waveSizeUB();
+            for (int k = orderStart[o]; k < orderStart[o + 1] && coverable; k++) {
+                coverable = orderQuantities[k] <= totalSupply[orderItems[k]];
+            }
+            if (coverable) {
+                orders[nKeptOrders++] = o;
+                for (int k = orderStart[o]; k < orderStart[o + 1]; k++) {
+                    ordered[orderItems[k]] = true;
+                }
+            }
+        }
+
+        int[] itemMap = new int[nItems];
+        int nKeptItems = 0;
+        for (int i = 0; i < nItems; i++) {
+            itemMap[i] = ordered[i] ? nKeptItems++ : -1;
+        }
+
+        int[] aisles = new int[nAisles];
+        int nKeptAisles = 0;
+        for (int a = 0; a < nAisles; a++) {
+            for (int k = aisleStart[a]; k < aisleStart[a + 1]; k++) {
+                if (ordered[aisleItems[k]]) {
+                    aisles[nKeptAisles++] = a;
+                    break;
+                }
+            }
+        }
+
+        this.orderMap = Arrays.copyOf(orders, nKeptOrders);
+        this.aisleMap = Arrays.copyOf(aisles, nKeptAisles);
+        this.reduced = instance.restrict(orderMap, aisleMap, itemMap, nKeptItems);
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("sbpo.presolve", "true"));
+    }
+
+    public Instance reduced() {
+        return reduced;
+    }
+
+    /*
+     * Whether nothing was removed, the reduced instance can then be skipped
+     */
+    public boolean isIdentity() {
+        return reduced.nOrders() == original.nOrders() && reduced.nAisles() == original.nAisles()
+                && reduced.nItems() == original.nItems();
+    }
+
+    /*
+     * Maps a solution of the reduced instance to the original indices
+     */
+    public ChallengeSolution restore(ChallengeSolution solution) {
+        // No wave found, the caller reports it
+        if (solution == null || solution.orders() == null || solution.aisles() == null) {
+            return null;
+        }
+        Set<Integer> orders = new TreeSet<>();
+        for (int order : solution.orders()) {
+            orders.add(orderMap[order]);
+        }
+        Set<Integer> aisles = new TreeSet<>();
+        for (int aisle : solution.aisles()) {
+            aisles.add(aisleMap[aisle]);
+        }
+        return new ChallengeSolution(orders, aisles);
+    }
+
+    public String report() {
+        return String.format("Presolve orders %d -> %d (%.1f%%), aisles %d -> %d (%.1f%%), items %d -> %d (%.1f%%)",
+                original.nOrders(), reduced.nOrders(), percent(reduced.nOrders(), original.nOrders()),
+                original.nAisles(), reduced.nAisles(), percent(reduced.nAisles(), original.nAisles()),
+                original.nItems(), reduced.nItems(), percent(reduced.nItems(), original.nItems()));
+    }
+
+    private static double percent(int kept, int total) {
+        return total == 0 ? 100 : 100.0 * kept / total;
+    }
+}
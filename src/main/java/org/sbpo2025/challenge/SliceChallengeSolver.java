@@ -15,9 +15,6 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 
-import ilog.concert.*;
-import ilog.cplex.*;
-
 class Pair<T, K> {
     public T first;
     public K second;
@@ -28,140 +25,81 @@ class Pair<T, K> {
     }
 }
 
-class CompressedOrders {
-    public Map<Integer, Integer> order;
-    public List<Integer> originalOrderIndexes = new ArrayList<>();
-
-    public CompressedOrders(Map<Integer, Integer> order, List<Integer> originalOrderIndexes){
-        this.order = order;
-        this.originalOrderIndexes = originalOrderIndexes;
-    }
-}
-
-public class SliceChallengeSolver {
-    private final long MAX_RUNTIME = 600000; // milliseconds; 10 minutes
+public class SliceChallengeSolver implements WaveSolver {
+    private final long MAX_RUNTIME = TimeLimit.millis(); // milliseconds; 10 minutes by default
     private final long RUNTIME = 600; // seconds; 10 minutes
     private final long BIN_ITER = 20; 
 
-    protected List<Map<Integer, Integer>> orders;
-    private List<CompressedOrders> compressedOrders;
-    private boolean compressOrders = false;
-    protected List<Map<Integer, Integer>> aisles;
+    protected Instance instance;
+    // Identical orders split in binary rows of 1, 2, 4, ... copies, sharing the aisles of the original instance
+    private OrderAggregator aggregator;
+    private Instance compressedInstance;
     protected int nItems;
     protected int waveSizeLB;
     protected int waveSizeUB;
 
-    public SliceChallengeSolver(
-            List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems, int waveSizeLB, int waveSizeUB) {
-        this.orders = orders;
-        this.aisles = aisles;
-        this.nItems = nItems;
-        this.waveSizeLB = waveSizeLB;
-        this.waveSizeUB = waveSizeUB;
-    }
+    private IncumbentHolder incumbentHolder = new IncumbentHolder();
+    private volatile boolean cancelled = false;
+    private volatile MipBackend activeBackend;
+    private int mipThreads = 0;
 
-    private void pushAisleItems(Map<Integer, Integer>[] AisleItems, List<Integer> aisleIndexes){
-        for (int i: aisleIndexes) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(i).entrySet()) {
-                AisleItems[entry.getKey()].put(i,entry.getValue());
-            }
-        }
+    public SliceChallengeSolver(Instance instance) {
+        this.instance = instance;
+        this.nItems = instance.nItems();
+        this.waveSizeLB = instance.waveSizeLB();
+        this.waveSizeUB = instance.waveSizeUB();
     }
 
-    private void createCompressedOrder(){
-        this.compressedOrders = new ArrayList<>();
-        List<List<Integer>> oneOrdersPerItem = new ArrayList<>();
-
-        for (int i = 0; i < nItems; i++) {
-            oneOrdersPerItem.add(new ArrayList<>()); 
-        }
-
-        for(int o = 0 ; o < orders.size() ; o++){
-            int totalItens = 0;
-            int itemType = -1;
-
-            for (Map.Entry<Integer, Integer> entry : orders.get(o).entrySet()) {
-                totalItens += entry.getValue();
-                itemType = entry.getKey();
-
-                if(totalItens > 1){
-                    break;
-                }
-            }
-
-            if(totalItens == 1 && compressOrders){
-                oneOrdersPerItem.get(itemType).add(o);
-            }else{
-                var orderIndex = new ArrayList<Integer>();
-                orderIndex.add(o);
-
-                compressedOrders.add(new CompressedOrders(orders.get(o), orderIndex));
-            }
-        }
-
-        for(int i = 0 ; i < nItems ; i++){
-            if(oneOrdersPerItem.get(i).size() > 0){
-                int total = oneOrdersPerItem.get(i).size();
-                int pt = 1;
-
-                while(total >= pt){
-                    var countItem = new HashMap<Integer, Integer>();
-                    countItem.put(i, pt);
-                    
-                    var indexes = new ArrayList<Integer>();
-
-                    for(int k = 0 ; k < pt ; k++){
-                        indexes.add(oneOrdersPerItem.get(i).getLast());
-                        oneOrdersPerItem.get(i).removeLast();
-                    }
-
-                    compressedOrders.add(new CompressedOrders(countItem, indexes));
-                    
-                    total -= pt;
-                    pt = pt * 2;
-                }
+    @Override
+    public void setIncumbentHolder(IncumbentHolder incumbentHolder) {
+        this.incumbentHolder = incumbentHolder;
+    }
 
-                if(total > 0){
-                    var countItem = new HashMap<Integer, Integer>();
-                    countItem.put(i, total);
+    public void setMipThreads(int mipThreads) {
+        this.mipThreads = mipThreads;
+    }
 
-                    compressedOrders.add(new CompressedOrders(countItem, oneOrdersPerItem.get(i)));
-                }
-            }
+    @Override
+    public void cancel() {
+        cancelled = true;
+        MipBackend backend = activeBackend;
+        if (backend != null) {
+            backend.abort();
         }
+    }
 
-        //System.out.println("Original order size = " + orders.size());
-        //System.out.println("Compressed order size = " + compressedOrders.size());
+    private void createCompressedOrder(){
+        this.aggregator = new OrderAggregator(instance, true);
+        this.compressedInstance = aggregator.aggregated();
+        System.out.println(aggregator.report());
     }
 
     public ChallengeSolution solve(StopWatch stopWatch) {
         createCompressedOrder();
 
         double firstRunAislesPercentage = 0.11;
-        Map<Integer, Integer>[] OrderItems = new HashMap[nItems];
-        Map<Integer, Integer>[] AisleItems = new HashMap[nItems];
         List<Pair< Integer, Integer > > AisleItemsCount = new ArrayList<>();
 
-        long totalItens = 0;
+        int nAisles = instance.nAisles();
+        int nCompressed = compressedInstance.nOrders();
+        int[] compressedUnits = compressedInstance.orderUnits();
+        int[] aisleStart = instance.aisleStart();
+        int[] aisleQuantities = instance.aisleQuantities();
 
-        for(int o = 0 ; o < orders.size() ; o++){
-            for(var entry: orders.get(o).entrySet()){
-                totalItens += entry.getValue();
-            }
-        }
+        long totalItens = instance.totalUnits();
 
-        if(totalItens >= 2 * orders.size()){
+        if(totalItens >= 2 * instance.nOrders()){
             firstRunAislesPercentage = 1.0;
             //System.out.println("Adjusting do 0.80");
         }
 
-        int aisleAvgItemsCount[] = new int[aisles.size()];
+        int aisleAvgItemsCount[] = new int[nAisles];
         
-        for(int a = 0 ; a < aisles.size() ; a++){
+        for(int a = 0 ; a < nAisles ; a++){
             aisleAvgItemsCount[a] = 0;
 
-            for (Map.Entry<Integer, Integer> entry : aisles.get(a).entrySet()) {
-                if(entry.getValue() >= 1){ // Talvez usar a média da quantidade de itens por pedido...
+            for (int k = aisleStart[a]; k < aisleStart[a + 1]; k++) {
+                if(aisleQuantities[k] >= 1){ // Talvez usar a média da quantidade de itens por pedido...
                     aisleAvgItemsCount[a]++; // deixei incompleto, isso aqui não tá fazendo nada por enquanto, tem o mesmo efeito de aisles.get(a).size()
                 }
             }
@@ -174,38 +112,33 @@ public class SliceChallengeSolver {
         });
 
         List<Integer> choosenAisleIndexes = new ArrayList<>();
-        Integer inverseChoosenAisleIndexes[] = new Integer[aisles.size()];
+        Integer inverseChoosenAisleIndexes[] = new Integer[nAisles];
 
-        for(int a = 0 ; a < aisles.size() * firstRunAislesPercentage ; a++){    
+        for(int a = 0 ; a < nAisles * firstRunAislesPercentage ; a++){    
             choosenAisleIndexes.add(AisleItemsCount.get(a).second);
             inverseChoosenAisleIndexes[AisleItemsCount.get(a).second] = a;
         }
 
-        for (int i = 0; i < nItems; i++) {
-            OrderItems[i] = new HashMap<>();
-            AisleItems[i] = new HashMap<>();
-        }
-        for (int i = 0; i < compressedOrders.size(); i++) {
-            for (Map.Entry<Integer, Integer> entry : compressedOrders.get(i).order.entrySet()) {
-                // System.out.println(entry.getKey()+ " " + nItems);
-                OrderItems[entry.getKey()].put(i,entry.getValue());
-            }
-        }
-
-        pushAisleItems(AisleItems, choosenAisleIndexes);
+        // Item-oriented views, built once per instance; aisles outside the current slice are skipped
+        ItemIndex orderIndex = compressedInstance.itemIndex();
+        int[] itemOrderStart = orderIndex.orderStart();
+        int[] itemOrders = orderIndex.orders();
+        int[] itemOrderQuantities = orderIndex.orderQuantities();
+        ItemIndex aisleIndex = instance.itemIndex();
+        int[] itemAisleStart = aisleIndex.aisleStart();
+        int[] itemAisles = aisleIndex.aisles();
+        int[] itemAisleQuantities = aisleIndex.aisleQuantities();
         
         // System.out.println(all);
-        double l = 1e-8;
         double epsilon = 1e-3;
-        boolean mark = false;
-        Set<Integer> orderset = new HashSet<>();
-        Set<Integer> aisleset = new HashSet<>();
-        IloObjective objective = null;
-        int iterr = 0;
-        try {
-            IloCplex cplex = new IloCplex();
-            cplex.setOut(null);
-            cplex.setWarning(null);
+        try (MipBackend backend = MipBackend.create()) {
+            activeBackend = backend;
+            if (cancelled) {
+                backend.abort();
+            }
+            if (mipThreads > 0) {
+                backend.setThreads(mipThreads);
+            }
             // cplex.setParam(IloCplex.IntParam.MIP.Display, 2);
             // cplex.setParam(IloCplex.IntParam.MIP.Interval, 0);
             // cplex.setParam(IloCplex.IntParam.MIP.Limits.TreeMemory, 0);
@@ -219,130 +152,106 @@ public class SliceChallengeSolver {
             // cplex.setParam(IloCplex.IntParam.MIP.Strategy.Dive, 3);
             // cplex.setParam(IloCplex.IntParam.MIP.Limits.StrongIt, 10); 
             // cplex.setParam(IloCplex.IntParam.MIP.Strategy.Branch, 3);
-            IloNumVar [] ordvar = cplex.numVarArray(compressedOrders.size(), 0, 1, IloNumVarType.Bool);
-            var aisvar = new ArrayList<>(Arrays.asList(cplex.numVarArray(choosenAisleIndexes.size(), 0, 1, IloNumVarType.Bool)));
-            IloLinearNumExpr sumorders = cplex.linearNumExpr();
-
-            for (int i = 0; i < compressedOrders.size(); i++) {
-                for (Map.Entry<Integer, Integer> entry : compressedOrders.get(i).order.entrySet()) {
-                    sumorders.addTerm(entry.getValue(), ordvar[i]);
-                }
+            int [] ordvar = backend.addVariables(nCompressed, 0, 1, true);
+            int [] aisvar = backend.addVariables(choosenAisleIndexes.size(), 0, 1, true);
+            double[] units = new double[nCompressed];
+            for (int i = 0; i < nCompressed; i++) {
+                units[i] = compressedUnits[i];
             }
-            cplex.addGe(sumorders, waveSizeLB);
+            backend.addGreaterEqual(ordvar, units, waveSizeLB);
 
-            cplex.addLe(sumorders, waveSizeUB);
+            backend.addLessEqual(ordvar, units, waveSizeUB);
 
             int totalSliceIterations = 2;
+            DinkelbachDriver driver = new DinkelbachDriver(backend, ordvar, units, aisvar);
+            driver.setName("slice");
+            driver.setAlpha(1e-8);
+            driver.setEpsilon(epsilon);
+            driver.setMaxIterations((int) BIN_ITER);
             
             for(int sliceIteration = 0 ; sliceIteration < totalSliceIterations ; sliceIteration++){
-                IloLinearNumExpr sumaisles = cplex.linearNumExpr();
-
-                for (int i = 0; i < aisvar.size(); i++) {
-                    sumaisles.addTerm(1, aisvar.get(i));
-                }
-
-                var sumAislesConstraint = cplex.addGe(sumaisles, 1); // remove...
-                var itensConstraints = new ArrayList<IloConstraint>();
+                SolverEvents.ModelBuild buildEvent = new SolverEvents.ModelBuild();
+                buildEvent.begin();
+                long buildStart = System.nanoTime();
+                SolverTrace.Span buildSpan = SolverTrace.start();
+                double[] ones = new double[aisvar.length];
+                Arrays.fill(ones, 1);
+                int sumAislesConstraint = backend.addGreaterEqual(aisvar, ones, 1); // remove...
+                int[] itensConstraints = new int[nItems];
 
                 for (int i = 0; i < nItems; i++) {
-                    IloLinearNumExpr ordersum = cplex.linearNumExpr();
-                    IloLinearNumExpr aislesum = cplex.linearNumExpr();
-                    for (Map.Entry<Integer, Integer> entry: OrderItems[i].entrySet()) {
-                        ordersum.addTerm(entry.getValue(), ordvar[entry.getKey()]);
+                    int[] vars = new int[itemOrderStart[i + 1] - itemOrderStart[i] + itemAisleStart[i + 1] - itemAisleStart[i]];
+                    double[] coefficients = new double[vars.length];
+                    int n = 0;
+                    for (int k = itemOrderStart[i]; k < itemOrderStart[i + 1]; k++, n++) {
+                        vars[n] = ordvar[itemOrders[k]];
+                        coefficients[n] = itemOrderQuantities[k];
                     }
-                    for (Map.Entry<Integer, Integer> entry : AisleItems[i].entrySet()) {
-                        aislesum.addTerm(entry.getValue(), aisvar.get(inverseChoosenAisleIndexes[entry.getKey()]));
+                    for (int k = itemAisleStart[i]; k < itemAisleStart[i + 1]; k++) {
+                        if(inverseChoosenAisleIndexes[itemAisles[k]] != null){
+                            vars[n] = aisvar[inverseChoosenAisleIndexes[itemAisles[k]]];
+                            coefficients[n++] = -itemAisleQuantities[k];
+                        }
                     }
-                    itensConstraints.add(cplex.addLe(ordersum, aislesum)); // remove
+                    itensConstraints[i] = backend.addLessEqual(Arrays.copyOf(vars, n), Arrays.copyOf(coefficients, n), 0); // remove
+                }
+                incumbentHolder.recordModelBuild(System.nanoTime() - buildStart);
+                if (buildEvent.shouldCommit()) {
+                    buildEvent.solver = "slice";
+                    buildEvent.slice = sliceIteration;
+                    buildEvent.orders = ordvar.length;
+                    buildEvent.aisles = aisvar.length;
+                    buildEvent.commit();
+                }
+                if (SolverTrace.ENABLED) {
+                    SolverTrace.line("model build", buildSpan).field("solver", "slice").field("slice", sliceIteration)
+                            .field("orders", ordvar.length).field("aisles", aisvar.length).write();
                 }
 
                 //System.out.println("builded starting remaining time: " + getRemainingTime(stopWatch));
 
-                double startTime = cplex.getCplexTime();
                 // cplex.setParam(IloCplex.DoubleParam.WorkMem, 14000); // limitar uso de memoria pra 14 GB
                 // // Descobrir o número de núcleos da CPU
                 // int totalCores = Runtime.getRuntime().availableProcessors();
                 // int maxThreads = (totalCores*8+9)/10; // 80% dos núcleos
                 // // Limitar o número de threads do CPLEX
                 // cplex.setParam(IloCplex.IntParam.Threads, maxThreads);
-                IloLinearNumExpr objetivo = cplex.linearNumExpr();
-
-                cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, 0.1 );
-
-                for(int c = 0; c < BIN_ITER; c++)
-                {
-                    if(getRemainingTime(stopWatch) <= 20)
-                        break;
-
-                    iterr = c;
-                    if(c == 10 || getRemainingTime(stopWatch) <= 150)
-                    {
-                        cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, 0.0);
-                    }
-                    
-                    // if(c != 0){
-                        // System.out.println("ALO7 "+cplex.getObjValue());
-                    // }
-                    // double mid = l;
-                    if(c == BIN_ITER-1 || getRemainingTime(stopWatch) <= 150){
-                        //System.out.println("\n -------Execução " + c+" l "+l+" Tempo Disponivel "+(getRemainingTime(stopWatch)-10)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
-                    }
-                    else{   
-                        //System.out.println("\n -------Execução " + c+" l "+l+" Tempo Disponivel "+(getRemainingTime(stopWatch)-10)/(2)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
-                    }
-
-                    if(c == 0 || Math.abs(cplex.getObjValue()) > epsilon)
-                    {
-                        if(c != 0){
-                            // cplex.addGe(objetivo, cplex.getObjValue());
-                            cplex.remove(objective);
-                            // cplex.setParam(IloCplex.IntParam.RootAlg, IloCplex.Algorithm.Dual);
-                        }
-                        objetivo = cplex.linearNumExpr();
-                        for (int i = 0; i < compressedOrders.size(); i++) {
-                            for (Map.Entry<Integer, Integer> entry : compressedOrders.get(i).order.entrySet()) {
-                                objetivo.addTerm(entry.getValue(), ordvar[i]);
-                            }
-                        }
-                        
-                        for (int i = 0; i < aisvar.size(); i++) {
-                            objetivo.addTerm(-l, aisvar.get(i));
+                backend.setRelativeGapTolerance(0.1);
+
+                // A zero objective only stops the last slice once proven optimal
+                final int slice = sliceIteration;
+                driver.setAisleVars(aisvar);
+                driver.setRequireOptimal(sliceIteration == totalSliceIterations - 1);
+                int[] sliceAisvar = aisvar;
+                DinkelbachDriver.Outcome outcome = driver.run(new DinkelbachDriver.IterationListener() {
+                    @Override
+                    public double beforeSolve(int c, double l) {
+                        if(cancelled || getRemainingTime(stopWatch) <= 20)
+                            return -1;
+
+                        if(c == 10 || getRemainingTime(stopWatch) <= 150)
+                        {
+                            backend.setRelativeGapTolerance(0.0);
                         }
 
-                        objective = cplex.addMaximize(objetivo);
+                        // TIRANDO TLE PRA BRUTAR
+                        if(slice != 0 || (c == BIN_ITER-1 || getRemainingTime(stopWatch) <= 150)){
+                            //System.out.println("\n -------Execução " + c+" l "+l+" Tempo Disponivel "+(getRemainingTime(stopWatch)-10)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
+                            return getRemainingTime(stopWatch)-10;
+                        }
+                        //System.out.println("\n -------Execução " + c+" l "+l+" Tempo Disponivel "+(getRemainingTime(stopWatch)-10)/(2)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
+                        return (getRemainingTime(stopWatch)-10)/(2);
                     }
 
-                    // TIRANDO TLE PRA BRUTAR
-                    if(sliceIteration != 0 || (c == BIN_ITER-1 || getRemainingTime(stopWatch) <= 150)){
-                        cplex.setParam(IloCplex.DoubleParam.TimeLimit, (getRemainingTime(stopWatch)-10));
-                    }
-                    else{
-                        cplex.setParam(IloCplex.DoubleParam.TimeLimit, (getRemainingTime(stopWatch)-10)/(2));
+                    @Override
+                    public void afterSolve(int c, double l, MipBackend.Status status, double objective) {
+                        incumbentHolder.offer(toSolution(driver.orderValues(), driver.aisleValues(), choosenAisleIndexes), l, "slice");
                     }
-
-                    if (cplex.solve()) {
-                       // System.out.println("Valor ótimo = " + cplex.getObjValue());
-                        int tot = 0;
-                        for (int i = 0; i < aisvar.size(); i++) {
-                            if(cplex.getValue(aisvar.get(i)) > 0.5)
-                                tot = tot+1;
-                        }
-                        l = l + cplex.getObjValue()/tot;
-                        if(Math.abs(cplex.getObjValue()) < epsilon){
-                            mark = true;
-                            if(cplex.getStatus() == IloCplex.Status.Optimal || (sliceIteration != totalSliceIterations - 1)){
-                                break;
-                            }
-                        }
-                        // if(Math.abs(cplex.getObjValue()) > epsilon)
-                        // System.out.println(cplex.getObjValue());
-                        //System.out.println("\n -------Resultado: l "+l+" diff "+cplex.getObjValue()+ " GAP "+cplex.getMIPRelativeGap() + " Otima? "+cplex.getStatus()+ " Tempo gasto: " + stopWatch.getTime(TimeUnit.SECONDS) + "s" +" ------\n");
-                    } else {
-                        //cplex.end();
-                        //System.out.println("Não foi encontrada solução viável.");
-                        break;
-                        // return null;
-                    } 
+                });
+                // Only a model holding every aisle proves the ratio optimal
+                if(outcome == DinkelbachDriver.Outcome.CONVERGED && driver.status() == MipBackend.Status.OPTIMAL
+                        && sliceAisvar.length == nAisles){
+                    incumbentHolder.markOptimal();
                 }
                 
                 if(getRemainingTime(stopWatch) < 60){
@@ -353,25 +262,37 @@ public class SliceChallengeSolver {
                     //System.out.println("Pushing slice variables...");
                     //System.out.println("rebuilding starting remaining time: " + getRemainingTime(stopWatch));
 
+                    SolverEvents.SliceExpansion expansionEvent = new SolverEvents.SliceExpansion();
+                    expansionEvent.begin();
+                    SolverTrace.Span expansionSpan = SolverTrace.start();
                     var currentAislesSize = choosenAisleIndexes.size();
                     int lastIndex = sliceIteration != (totalSliceIterations - 2) ?
-                        Math.min(currentAislesSize + (int) (firstRunAislesPercentage * aisles.size()), aisles.size()) : aisles.size();
+                        Math.min(currentAislesSize + (int) (firstRunAislesPercentage * nAisles), nAisles) : nAisles;
 
                     for(int a = currentAislesSize ; a < lastIndex ; a++){
                         choosenAisleIndexes.add(AisleItemsCount.get(a).second);
                         inverseChoosenAisleIndexes[AisleItemsCount.get(a).second] = a;
-                        aisvar.add(cplex.numVar(0, 1, IloNumVarType.Bool));
                     }
+                    int[] pushed = backend.addVariables(lastIndex - currentAislesSize, 0, 1, true);
+                    aisvar = Arrays.copyOf(aisvar, lastIndex);
+                    System.arraycopy(pushed, 0, aisvar, currentAislesSize, pushed.length);
 
-                    pushAisleItems(AisleItems, choosenAisleIndexes.subList(currentAislesSize, choosenAisleIndexes.size()));
+                    backend.removeConstraint(sumAislesConstraint);
 
-                    cplex.remove(sumAislesConstraint);
-
-                    for(var itemConstraint: itensConstraints){
-                        cplex.remove(itemConstraint);
+                    for(int itemConstraint: itensConstraints){
+                        backend.removeConstraint(itemConstraint);
                     }
-
-                    cplex.remove(objective);
+                    if (expansionEvent.shouldCommit()) {
+                        expansionEvent.slice = sliceIteration;
+                        expansionEvent.fromAisles = currentAislesSize;
+                        expansionEvent.toAisles = lastIndex;
+                        expansionEvent.commit();
+                    }
+                    if (SolverTrace.ENABLED) {
+                        SolverTrace.line("slice expansion", expansionSpan).field("slice", sliceIteration)
+                                .field("fromAisles", currentAislesSize).field("toAisles", lastIndex).write();
+                    }
+                    // The objective is rebuilt over the new aisles on the next driver run
                     // cplex.setParam(IloCplex.IntParam.RootAlgorithm, IloCplex.Algorithm.Dual);
 
                     // cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, 0.001 );
@@ -379,34 +300,42 @@ public class SliceChallengeSolver {
             }
 
             // try (BufferedWriter writer = new BufferedWriter(new FileWriter("log.txt", true))) {
-                // writer.write("\n -------Resultado: l "+l+" diff "+cplex.getObjValue()+ " GAP "+cplex.getMIPRelativeGap() + " Otima? "+cplex.getStatus()+ " Tempo gasto: " + stopWatch.getTime(TimeUnit.SECONDS) + "s" + "iterations" + iterr+" order size "+ orders.size() + " aisle size " +aisles.size()+" ------\n");
+                // writer.write("\n -------Resultado: l "+driver.alpha()+" diff "+driver.objective()+ " GAP "+backend.getRelativeGap() + " Otima? "+driver.status()+ " Tempo gasto: " + stopWatch.getTime(TimeUnit.SECONDS) + "s" + "iterations" + driver.iterations()+" order size "+ instance.nOrders() + " aisle size " +nAisles+" ------\n");
             //} catch (IOException e) {
               //  e.printStackTrace();
             //}
 
-            orderset.clear();
-            aisleset.clear();
-            for (int i = 0; i < compressedOrders.size(); i++) {
-                if(cplex.getValue(ordvar[i]) > 0.5){
-                    for(int k: compressedOrders.get(i).originalOrderIndexes){
-                        orderset.add(k);
-                    }
-                }
-            }
-            for (int i = 0; i < aisvar.size(); i++) {
-                if(cplex.getValue(aisvar.get(i)) > + 0.5)
-                    aisleset.add(choosenAisleIndexes.get(i));
+            System.out.print(driver.report());
+            // The driver keeps the values of its last solve; after an expansion the model may hold
+            // columns no run has solved yet, and choosenAisleIndexes only grows, so it still maps them
+            if (driver.aisleValues() == null) {
+                return null;
             }
-            cplex.end();
-            return new ChallengeSolution(orderset, aisleset);
+            return toSolution(driver.orderValues(), driver.aisleValues(), choosenAisleIndexes);
             
-        } catch (IloException e) {
+        } catch (MipBackendException e) {
             e.printStackTrace(System.out);
+        } finally {
+            activeBackend = null;
         }
         // Fechar o solver
         return null;
     }
 
+    /*
+     * Maps compressed orders and sliced aisles back to the original indexes
+     */
+    private ChallengeSolution toSolution(double[] ordValues, double[] aisValues, List<Integer> choosenAisleIndexes) {
+        Set<Integer> orderset = new HashSet<>();
+        Set<Integer> aisleset = new HashSet<>();
+        orderset.addAll(aggregator.expand(ordValues));
+        for (int i = 0; i < aisValues.length; i++) {
+            if(aisValues[i] > 0.5)
+                aisleset.add(choosenAisleIndexes.get(i));
+        }
+        return new ChallengeSolution(orderset, aisleset);
+    }
+
     /*
      * Get the remaining time in seconds
      */
@@ -415,66 +344,4 @@ public class SliceChallengeSolver {
                 TimeUnit.SECONDS.convert(MAX_RUNTIME - stopWatch.getTime(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS),
                 0);
     }
-
-    protected boolean isSolutionFeasible(ChallengeSolution challengeSolution) {
-        Set<Integer> selectedOrders = challengeSolution.orders();
-        Set<Integer> visitedAisles = challengeSolution.aisles();
-        if (selectedOrders == null || visitedAisles == null || selectedOrders.isEmpty() || visitedAisles.isEmpty()) {
-            return false;
-        }
-
-        int[] totalUnitsPicked = new int[nItems];
-        int[] totalUnitsAvailable = new int[nItems];
-
-        // Calculate total units picked
-        for (int order : selectedOrders) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                totalUnitsPicked[entry.getKey()] += entry.getValue();
-            }
-        }
-
-        // Calculate total units available
-        for (int aisle : visitedAisles) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                totalUnitsAvailable[entry.getKey()] += entry.getValue();
-            }
-        }
-
-        // Check if the total units picked are within bounds
-        int totalUnits = Arrays.stream(totalUnitsPicked).sum();
-        if (totalUnits < waveSizeLB || totalUnits > waveSizeUB) {
-            return false;
-        }
-
-        // Check if the units picked do not exceed the units available
-        for (int i = 0; i < nItems; i++) {
-            if (totalUnitsPicked[i] > totalUnitsAvailable[i]) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    protected double computeObjectiveFunction(ChallengeSolution challengeSolution) {
-        Set<Integer> selectedOrders = challengeSolution.orders();
-        Set<Integer> visitedAisles = challengeSolution.aisles();
-        if (selectedOrders == null || visitedAisles == null || selectedOrders.isEmpty() || visitedAisles.isEmpty()) {
-            return 0.0;
-        }
-        int totalUnitsPicked = 0;
-
-        // Calculate total units picked
-        for (int order : selectedOrders) {
-            totalUnitsPicked += orders.get(order).values().stream()
-                    .mapToInt(Integer::intValue)
-                    .sum();
-        }
-
-        // Calculate the number of visited aisles
-        int numVisitedAisles = visitedAisles.size();
-
-        // Objective function: total units picked / number of visited aisles
-        return (double) totalUnitsPicked / numVisitedAisles;
-    }
 }
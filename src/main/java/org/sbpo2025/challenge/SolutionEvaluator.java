@@ -0,0 +1,158 @@
+package org.sbpo2025.challenge;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/*
+ * Feasibility and objective of waves given as primitive index arrays, BitSets or ChallengeSolutions.
+ * One int[nItems] slack buffer is filled with the stock of the visited aisles, the selected orders are then
+ * subtracted and the check stops at the first item that goes negative; only the touched entries are reset.
+ * Wave bounds are checked first from the order units. No allocation after construction
+ * (except the Set iterators of the ChallengeSolution overloads). Not thread-safe, use one per thread.
+ */
+public final class SolutionEvaluator {
+    public static final double INFEASIBLE = -1;
+
+    private final Instance instance;
+    private final int[] slack;
+    private final int[] orderBuffer;
+    private final int[] aisleBuffer;
+
+    public SolutionEvaluator(Instance instance) {
+        this.instance = instance;
+        this.slack = new int[instance.nItems()];
+        this.orderBuffer = new int[instance.nOrders()];
+        this.aisleBuffer = new int[instance.nAisles()];
+    }
+
+    /*
+     * orders[0, nOrders) and aisles[0, nAisles) hold distinct indexes
+     */
+    public boolean isFeasible(int[] orders, int nOrders, int[] aisles, int nAisles) {
+        if (nOrders == 0 || nAisles == 0) {
+            return false;
+        }
+        long units = units(orders, nOrders);
+        if (units < instance.waveSizeLB() || units > instance.waveSizeUB()) {
+            return false;
+        }
+
+        int[] orderStart = instance.orderStart();
+        int[] orderItems = instance.orderItems();
+        int[] orderQuantities = instance.orderQuantities();
+        int[] aisleStart = instance.aisleStart();
+        int[] aisleItems = instance.aisleItems();
+        int[] aisleQuantities = instance.aisleQuantities();
+
+        for (int i = 0; i < nAisles; i++) {
+            int aisle = aisles[i];
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                slack[aisleItems[k]] += aisleQuantities[k];
+            }
+        }
+        boolean feasible = true;
+        int walked = 0;
+        while (walked < nOrders && feasible) {
+            int order = orders[walked++];
+            for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+                if ((slack[orderItems[k]] -= orderQuantities[k]) < 0) {
+                    feasible = false;
+                }
+            }
+        }
+
+        for (int i = 0; i < nAisles; i++) {
+            int aisle = aisles[i];
+            for (int k = aisleStart[aisle]; k < aisleStart[aisle + 1]; k++) {
+                slack[aisleItems[k]] = 0;
+            }
+        }
+        for (int i = 0; i < walked; i++) {
+            int order = orders[i];
+            for (int k = orderStart[order]; k < orderStart[order + 1]; k++) {
+                slack[orderItems[k]] = 0;
+            }
+        }
+        return feasible;
+    }
+
+    public double objective(int[] orders, int nOrders, int nAisles) {
+        if (nOrders == 0 || nAisles == 0) {
+            return 0.0;
+        }
+        return (double) units(orders, nOrders) / nAisles;
+    }
+
+    /*
+     * Ratio of a feasible wave, INFEASIBLE otherwise
+     */
+    public double evaluate(int[] orders, int nOrders, int[] aisles, int nAisles) {
+        return isFeasible(orders, nOrders, aisles, nAisles) ? objective(orders, nOrders, nAisles) : INFEASIBLE;
+    }
+
+    /*
+     * Bulk evaluation of a population: ratios[i] is the ratio of (orders[i], aisles[i]) or INFEASIBLE.
+     * Returns the index of the best feasible candidate, -1 if none is feasible.
+     */
+    public int evaluateAll(int[][] orders, int[][] aisles, double[] ratios) {
+        int best = -1;
+        for (int i = 0; i < orders.length; i++) {
+            ratios[i] = evaluate(orders[i], orders[i].length, aisles[i], aisles[i].length);
+            if (ratios[i] != INFEASIBLE && (best < 0 || ratios[i] > ratios[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    public boolean isFeasible(BitSet orders, BitSet aisles) {
+        return isFeasible(orderBuffer, toArray(orders, orderBuffer), aisleBuffer, toArray(aisles, aisleBuffer));
+    }
+
+    public double objective(BitSet orders, BitSet aisles) {
+        return objective(orderBuffer, toArray(orders, orderBuffer), aisles.cardinality());
+    }
+
+    public boolean isFeasible(ChallengeSolution solution) {
+        Set<Integer> orders = solution.orders();
+        Set<Integer> aisles = solution.aisles();
+        if (orders == null || aisles == null) {
+            return false;
+        }
+        return isFeasible(orderBuffer, toArray(orders, orderBuffer), aisleBuffer, toArray(aisles, aisleBuffer));
+    }
+
+    public double objective(ChallengeSolution solution) {
+        Set<Integer> orders = solution.orders();
+        Set<Integer> aisles = solution.aisles();
+        if (orders == null || aisles == null) {
+            return 0.0;
+        }
+        return objective(orderBuffer, toArray(orders, orderBuffer), aisles.size());
+    }
+
+    private long units(int[] orders, int nOrders) {
+        int[] orderUnits = instance.orderUnits();
+        long units = 0;
+        for (int i = 0; i < nOrders; i++) {
+            units += orderUnits[orders[i]];
+        }
+        return units;
+    }
+
+    private static int toArray(BitSet set, int[] buffer) {
+        int n = 0;
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            buffer[n++] = i;
+        }
+        return n;
+    }
+
+    private static int toArray(Set<Integer> set, int[] buffer) {
+        int n = 0;
+        for (int i : set) {
+            buffer[n++] = i;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,152 @@
+package org.sbpo2025.challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Java replacement of checker.py / run_checker.sh: checks every <outputFolder>/<name> against
+ * <inputFolder>/<name> in parallel and prints one table with the feasibility and objective of each solution.
+ * Instances go through Challenge.loadInput (binary cache when fresh), solutions through MappedInputReader,
+ * and each check is a linear SolutionEvaluator pass. Repeated indexes are ignored like checker.py does,
+ * out of range indexes make the solution infeasible.
+ */
+public class SolutionValidator {
+    private record Result(String name, String status, int nOrders, int nAisles, long units, double objective) {
+        boolean feasible() {
+            return status.equals("yes");
+        }
+    }
+
+    private final String inputFolder;
+    private final String outputFolder;
+    private final int parallelism;
+
+    public SolutionValidator(String inputFolder, String outputFolder, int parallelism) {
+        this.inputFolder = inputFolder;
+        this.outputFolder = outputFolder;
+        this.parallelism = parallelism;
+    }
+
+    /*
+     * Returns the number of solutions that are missing, unreadable or infeasible
+     */
+    public int run() {
+        File[] inputFiles = new File(inputFolder).listFiles((dir, name) -> name.endsWith(".txt"));
+        if (inputFiles == null) {
+            System.err.println("Input folder not found: " + inputFolder);
+            return 1;
+        }
+        Arrays.sort(inputFiles);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        List<Future<Result>> pending = new ArrayList<>();
+        for (File inputFile : inputFiles) {
+            pending.add(executor.submit(() -> validate(inputFile)));
+        }
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            try {
+                results.add(pending.get(i).get());
+            } catch (ExecutionException e) {
+                System.err.println("Validation failed for " + inputFiles[i].getPath());
+                e.getCause().printStackTrace();
+                results.add(new Result(inputFiles[i].getName(), "error", 0, 0, 0, 0.0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        executor.shutdownNow();
+        return print(results);
+    }
+
+    private Result validate(File inputFile) {
+        String name = inputFile.getName();
+        Path solutionPath = Path.of(outputFolder, name);
+        if (!solutionPath.toFile().isFile()) {
+            return new Result(name, "missing", 0, 0, 0, 0.0);
+        }
+        Challenge challenge = new Challenge();
+        challenge.loadInput(inputFile.getPath());
+        Instance instance = challenge.getInstance();
+        if (instance == null) {
+            return new Result(name, "error", 0, 0, 0, 0.0);
+        }
+
+        int[] orders;
+        int[] aisles;
+        try {
+            MappedInputReader reader = MappedInputReader.open(solutionPath);
+            orders = readIndexes(reader);
+            aisles = readIndexes(reader);
+        } catch (IOException e) {
+            return new Result(name, "unreadable", 0, 0, 0, 0.0);
+        }
+
+        int nOrders = distinct(orders, instance.nOrders());
+        int nAisles = distinct(aisles, instance.nAisles());
+        if (nOrders < 0 || nAisles < 0) {
+            return new Result(name, "bad index", orders.length, aisles.length, 0, 0.0);
+        }
+        long units = 0;
+        for (int i = 0; i < nOrders; i++) {
+            units += instance.orderUnits()[orders[i]];
+        }
+        SolutionEvaluator evaluator = new SolutionEvaluator(instance);
+        boolean feasible = evaluator.isFeasible(orders, nOrders, aisles, nAisles);
+        return new Result(name, feasible ? "yes" : "no", nOrders, nAisles, units,
+                evaluator.objective(orders, nOrders, nAisles));
+    }
+
+    private static int[] readIndexes(MappedInputReader reader) throws IOException {
+        int[] indexes = new int[reader.nextInt()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = reader.nextInt();
+        }
+        return indexes;
+    }
+
+    /*
+     * Moves the distinct indexes to the front and returns how many there are, -1 if one is not below bound
+     */
+    private static int distinct(int[] indexes, int bound) {
+        BitSet seen = new BitSet(bound);
+        int n = 0;
+        for (int index : indexes) {
+            if (index >= bound) {
+                return -1;
+            }
+            if (!seen.get(index)) {
+                seen.set(index);
+                indexes[n++] = index;
+            }
+        }
+        return n;
+    }
+
+    private static int print(List<Result> results) {
+        System.out.printf("%-24s %-10s %8s %8s %10s %12s%n", "instance", "feasible", "orders", "aisles", "units", "objective");
+        int feasible = 0;
+        double objectiveSum = 0.0;
+        for (Result result : results) {
+            System.out.printf("%-24s %-10s %8d %8d %10d %12.4f%n", result.name(), result.status(),
+                    result.nOrders(), result.nAisles(), result.units(), result.objective());
+            if (result.feasible()) {
+                feasible++;
+                objectiveSum += result.objective();
+            }
+        }
+        System.out.printf("%-24s %-10s %8s %8s %10s %12.4f%n", "total",
+                feasible + "/" + results.size(), "", "", "", objectiveSum);
+        return results.size() - feasible;
+    }
+}
@@ -0,0 +1,112 @@
+package org.sbpo2025.challenge;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/*
+ * Java Flight Recorder events of the solver, shown under "SBPO" next to the GC and allocation data:
+ *   java -XX:StartFlightRecording=filename=run.jfr -jar target/ChallengeSBPO2025-1.0.jar <input> <output>
+ * Usage is the usual begin() / shouldCommit() / commit(); without a recording the JIT drops the events.
+ */
+final class SolverEvents {
+    private SolverEvents() {
+    }
+
+    @Name("sbpo.Parse")
+    @Label("Instance Parse")
+    @Category("SBPO")
+    static final class Parse extends Event {
+        @Label("File")
+        String file;
+        @Label("From Binary Cache")
+        boolean cached;
+        @Label("Orders")
+        int orders;
+        @Label("Items")
+        int items;
+        @Label("Aisles")
+        int aisles;
+    }
+
+    @Name("sbpo.IndexBuild")
+    @Label("Item Index Build")
+    @Category("SBPO")
+    static final class IndexBuild extends Event {
+        @Label("Orders")
+        int orders;
+        @Label("Items")
+        int items;
+        @Label("Aisles")
+        int aisles;
+    }
+
+    @Name("sbpo.ModelBuild")
+    @Label("Model Build")
+    @Category("SBPO")
+    static final class ModelBuild extends Event {
+        @Label("Solver")
+        String solver;
+        @Label("Slice")
+        @Description("Slice iteration of SliceChallengeSolver, -1 for the exact model")
+        int slice;
+        @Label("Order Variables")
+        int orders;
+        @Label("Aisle Variables")
+        int aisles;
+    }
+
+    @Name("sbpo.DinkelbachIteration")
+    @Label("Dinkelbach Iteration")
+    @Category("SBPO")
+    static final class DinkelbachIteration extends Event {
+        @Label("Solver")
+        String solver;
+        @Label("Iteration")
+        int iteration;
+        @Label("Alpha")
+        double alpha;
+        @Label("Objective")
+        double objective;
+        @Label("Relative Gap")
+        double gap;
+        @Label("Status")
+        String status;
+        @Label("Selected Aisles")
+        int aisles;
+        @Label("Time Limit")
+        @Timespan(Timespan.MILLISECONDS)
+        long timeLimit;
+        @Label("Warm Started")
+        boolean warmStarted;
+    }
+
+    @Name("sbpo.SliceExpansion")
+    @Label("Slice Expansion")
+    @Category("SBPO")
+    static final class SliceExpansion extends Event {
+        @Label("Slice")
+        int slice;
+        @Label("Aisles Before")
+        int fromAisles;
+        @Label("Aisles After")
+        int toAisles;
+    }
+
+    @Name("sbpo.HeuristicRestart")
+    @Label("Heuristic Restart")
+    @Category("SBPO")
+    static final class HeuristicRestart extends Event {
+        @Label("Restart")
+        int restart;
+        @Label("Best Units")
+        int units;
+        @Label("Best Aisles")
+        int aisles;
+        @Label("Best Ratio")
+        double ratio;
+    }
+}
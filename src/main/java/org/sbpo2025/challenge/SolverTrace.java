@@ -0,0 +1,159 @@
+package org.sbpo2025.challenge;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Phase and iteration trace written as JSON Lines to the file given by -Dsbpo.trace=<file> (appended, flushed per line).
+ * Each line holds the phase name, the thread, the start in milliseconds since the trace was opened, the duration
+ * in milliseconds, the heap accounting of the phase (AllocationMeter: bytes allocated by the thread, collections
+ * and collection time during the phase, heap live after the last collection) and the phase's own fields, e.g.
+ *   {"phase":"dinkelbach","thread":"main","startMs":12.431,"ms":503.112,"allocatedBytes":81234,"gcCount":0,
+ *    "gcMs":0,"heapAfterGcBytes":10485760,"solver":"exact","iteration":0,"alpha":0.0,...}
+ * Disabled, start() returns null and phase() returns at once on the static final ENABLED flag, which the JIT folds
+ * away; call sites that build fields guard them with ENABLED so nothing is allocated.
+ */
+public final class SolverTrace {
+    public static final boolean ENABLED = System.getProperty("sbpo.trace") != null;
+
+    private static final long ORIGIN = System.nanoTime();
+    private static final BufferedWriter WRITER = ENABLED ? open(System.getProperty("sbpo.trace")) : null;
+
+    private SolverTrace() {
+    }
+
+    private static BufferedWriter open(String path) {
+        try {
+            return Files.newBufferedWriter(Path.of(path), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Error opening trace file " + path);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /*
+     * Counters at the start of a phase, taken on the thread that runs it
+     */
+    public static final class Span {
+        private final long startNanos = System.nanoTime();
+        private final long startBytes = AllocationMeter.threadAllocatedBytes();
+        private final long startGcCount = AllocationMeter.gcCount();
+        private final long startGcMillis = AllocationMeter.gcMillis();
+
+        private Span() {
+        }
+    }
+
+    /*
+     * Span for phase() / line(), null when disabled
+     */
+    public static Span start() {
+        return ENABLED ? new Span() : null;
+    }
+
+    /*
+     * Writes a phase without fields
+     */
+    public static void phase(String phase, Span span) {
+        if (ENABLED && span != null) {
+            line(phase, span).write();
+        }
+    }
+
+    /*
+     * Line under construction, only create it when ENABLED
+     */
+    public static Line line(String phase, Span span) {
+        return new Line(phase, span);
+    }
+
+    public static final class Line {
+        private final StringBuilder json = new StringBuilder(256);
+
+        private Line(String phase, Span span) {
+            long now = System.nanoTime();
+            long bytes = AllocationMeter.threadAllocatedBytes();
+            json.append("{\"phase\":");
+            quote(phase);
+            json.append(",\"thread\":");
+            quote(Thread.currentThread().getName());
+            json.append(",\"startMs\":").append((span.startNanos - ORIGIN) / 1e6);
+            json.append(",\"ms\":").append((now - span.startNanos) / 1e6);
+            json.append(",\"allocatedBytes\":").append(bytes < 0 || span.startBytes < 0 ? -1 : bytes - span.startBytes);
+            json.append(",\"gcCount\":").append(AllocationMeter.gcCount() - span.startGcCount);
+            json.append(",\"gcMs\":").append(AllocationMeter.gcMillis() - span.startGcMillis);
+            json.append(",\"heapAfterGcBytes\":").append(AllocationMeter.heapAfterGcBytes());
+        }
+
+        public Line field(String key, long value) {
+            key(key).append(value);
+            return this;
+        }
+
+        public Line field(String key, double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                key(key).append("null");
+            } else {
+                key(key).append(value);
+            }
+            return this;
+        }
+
+        public Line field(String key, boolean value) {
+            key(key).append(value);
+            return this;
+        }
+
+        public Line field(String key, Object value) {
+            key(key);
+            if (value == null) {
+                json.append("null");
+            } else {
+                quote(value.toString());
+            }
+            return this;
+        }
+
+        public void write() {
+            json.append("}\n");
+            if (WRITER == null) {
+                return;
+            }
+            synchronized (WRITER) {
+                try {
+                    WRITER.append(json);
+                    WRITER.flush();
+                } catch (IOException e) {
+                    // A broken trace must not stop the solver
+                }
+            }
+        }
+
+        private StringBuilder key(String key) {
+            json.append(',');
+            quote(key);
+            return json.append(':');
+        }
+
+        private void quote(String value) {
+            json.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    json.append('\\').append(c);
+                } else if (c < ' ') {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+            json.append('"');
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.sbpo2025.challenge;
+
+/*
+ * Wall-clock budget of one instance: the 10 minutes of the challenge rules, or -Dsbpo.timeLimit=<seconds>
+ * to run shorter experiments (BenchmarkRunner). Read when a solver is created.
+ */
+final class TimeLimit {
+    private static final long DEFAULT_SECONDS = 600;
+
+    private TimeLimit() {
+    }
+
+    static long seconds() {
+        return Long.getLong("sbpo.timeLimit", DEFAULT_SECONDS);
+    }
+
+    static long millis() {
+        return seconds() * 1000;
+    }
+}
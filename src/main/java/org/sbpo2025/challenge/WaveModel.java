@@ -0,0 +1,75 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+
+/*
+ * Order/aisle selection model shared by the exact solvers: one binary per order and per aisle,
+ * waveSizeLB <= units <= waveSizeUB, at least one aisle, and for every item the picked units
+ * must not exceed the units of the visited aisles.
+ */
+record WaveModel(int[] orderVars, int[] aisleVars, double[] orderUnits) {
+
+    static WaveModel build(MipBackend backend, Instance instance) {
+        return build(backend, instance, null, null);
+    }
+
+    /*
+     * With orderUpperBounds (see OrderAggregator) an order variable counts identical orders, 0..bound.
+     * With dominance the aisles of instance are its groups: a variable counts identical aisles and
+     * m_h * y_g <= m_g * y_h is added for every group h dominating g.
+     */
+    static WaveModel build(MipBackend backend, Instance instance, double[] orderUpperBounds, AisleDominance dominance) {
+        int nOrders = instance.nOrders();
+        int nAisles = instance.nAisles();
+        int[] ordvar = orderUpperBounds == null
+                ? backend.addVariables(nOrders, 0, 1, true)
+                : backend.addVariables(new double[nOrders], orderUpperBounds, true);
+        int[] aisvar = dominance == null || dominance.isIdentity()
+                ? backend.addVariables(nAisles, 0, 1, true)
+                : backend.addVariables(new double[nAisles], dominance.upperBounds(), true);
+
+        double[] units = new double[nOrders];
+        int[] orderUnits = instance.orderUnits();
+        for (int i = 0; i < nOrders; i++) {
+            units[i] = orderUnits[i];
+        }
+        double[] ones = new double[nAisles];
+        Arrays.fill(ones, 1);
+
+        backend.addGreaterEqual(aisvar, ones, 1);
+        backend.addGreaterEqual(ordvar, units, instance.waveSizeLB());
+        backend.addLessEqual(ordvar, units, instance.waveSizeUB());
+
+        ItemIndex itemIndex = instance.itemIndex();
+        int[] itemOrderStart = itemIndex.orderStart();
+        int[] itemOrders = itemIndex.orders();
+        int[] itemOrderQuantities = itemIndex.orderQuantities();
+        int[] itemAisleStart = itemIndex.aisleStart();
+        int[] itemAisles = itemIndex.aisles();
+        int[] itemAisleQuantities = itemIndex.aisleQuantities();
+        for (int i = 0; i < instance.nItems(); i++) {
+            int[] vars = new int[itemOrderStart[i + 1] - itemOrderStart[i] + itemAisleStart[i + 1] - itemAisleStart[i]];
+            double[] coefficients = new double[vars.length];
+            int n = 0;
+            for (int k = itemOrderStart[i]; k < itemOrderStart[i + 1]; k++, n++) {
+                vars[n] = ordvar[itemOrders[k]];
+                coefficients[n] = itemOrderQuantities[k];
+            }
+            for (int k = itemAisleStart[i]; k < itemAisleStart[i + 1]; k++, n++) {
+                vars[n] = aisvar[itemAisles[k]];
+                coefficients[n] = -itemAisleQuantities[k];
+            }
+            backend.addLessEqual(vars, coefficients, 0);
+        }
+
+        if (dominance != null) {
+            double[] bounds = dominance.upperBounds();
+            for (int g = 0; g < nAisles; g++) {
+                for (int h : dominance.dominators(g)) {
+                    backend.addLessEqual(new int[]{aisvar[g], aisvar[h]}, new double[]{bounds[h], -bounds[g]}, 0);
+                }
+            }
+        }
+        return new WaveModel(ordvar, aisvar, units);
+    }
+}
@@ -0,0 +1,15 @@
+package org.sbpo2025.challenge;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+/*
+ * Common entry point of the solvers. Improving solutions are published to the incumbent holder,
+ * cancel() may be called from another thread and makes a running solve return its best solution early.
+ */
+public interface WaveSolver {
+    ChallengeSolution solve(StopWatch stopWatch);
+
+    void setIncumbentHolder(IncumbentHolder incumbentHolder);
+
+    void cancel();
+}
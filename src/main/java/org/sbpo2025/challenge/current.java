@@ -2,7 +2,6 @@ package org.sbpo2025.challenge;
 
 import org.apache.commons.lang3.time.StopWatch;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,65 +12,34 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 
-import ilog.concert.*;
-import ilog.cplex.*;
-
 public class current {
-    private final long MAX_RUNTIME = 600000; // milliseconds; 10 minutes
+    private final long MAX_RUNTIME = TimeLimit.millis(); // milliseconds; 10 minutes by default
     private final long RUNTIME = 600; // seconds; 10 minutes
     private final long BIN_ITER = 20; 
 
-    protected List<Map<Integer, Integer>> orders;
-    protected List<Map<Integer, Integer>> aisles;
+    protected Instance instance;
     protected int nItems;
     protected int waveSizeLB;
     protected int waveSizeUB;
-
-    public current(
-            List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems, int waveSizeLB, int waveSizeUB) {
-        this.orders = orders;
-        this.aisles = aisles;
-        this.nItems = nItems;
-        this.waveSizeLB = waveSizeLB;
-        this.waveSizeUB = waveSizeUB;
+    protected final SolutionEvaluator evaluator;
+
+    public current(Instance instance) {
+        this.instance = instance;
+        this.nItems = instance.nItems();
+        this.waveSizeLB = instance.waveSizeLB();
+        this.waveSizeUB = instance.waveSizeUB();
+        this.evaluator = new SolutionEvaluator(instance);
     }
 
     public ChallengeSolution solve(StopWatch stopWatch) {
-        Map<Integer, Integer>[] OrderItems = new HashMap[nItems];
-        Map<Integer, Integer>[] AisleItems = new HashMap[nItems];
-        int all = 0;
-        for (int i = 0; i < nItems; i++) {
-            OrderItems[i] = new HashMap<>();
-            AisleItems[i] = new HashMap<>();
-        }
-        for (int i = 0; i < orders.size(); i++) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(i).entrySet()) {
-                all += entry.getValue();
-                // System.out.println(entry.getKey()+ " " + nItems);
-                OrderItems[entry.getKey()].put(i,entry.getValue());
-            }
-        }
-
-        for (int i = 0; i < aisles.size(); i++) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(i).entrySet()) {
-                AisleItems[entry.getKey()].put(i,entry.getValue());
-            }
-        }
-
-        
+        int nOrders = instance.nOrders();
+        int nAisles = instance.nAisles();
         // System.out.println(all);
-        double l = 1e-8;
         double epsilon = 1e-3;
-        boolean mark = false;
         Set<Integer> orderset = new HashSet<>();
         Set<Integer> aisleset = new HashSet<>();
-        IloObjective objective = null;
-        int iterr = 0;
-        try {
-            IloCplex cplex = new IloCplex();
-            cplex.setOut(null);
-            cplex.setWarning(null);
-            cplex.setParam(IloCplex.IntParam.MIP.Display, 0);
+        try (MipBackend backend = MipBackend.create()) {
+            backend.setQuiet(true);
             // cplex.setParam(IloCplex.IntParam.MIP.Interval, 0);
             // cplex.setParam(IloCplex.IntParam.MIP.Limits.TreeMemory, 0);
 
@@ -84,136 +52,72 @@ public class current {
             // cplex.setParam(IloCplex.IntParam.MIP.Strategy.Dive, 3);
             // cplex.setParam(IloCplex.IntParam.MIP.Limits.StrongIt, 10); 
             // cplex.setParam(IloCplex.IntParam.MIP.Strategy.Branch, 3);
-            IloNumVar [] ordvar = cplex.numVarArray(orders.size(),0,1, IloNumVarType.Bool);
-            IloNumVar [] aisvar = cplex.numVarArray(aisles.size(),0,1, IloNumVarType.Bool);
-
-            
-            IloLinearNumExpr sumorders = cplex.linearNumExpr();
-            IloLinearNumExpr sumaisles = cplex.linearNumExpr();
-
-
-            for (int i = 0; i < orders.size(); i++) {
-                for (Map.Entry<Integer, Integer> entry : orders.get(i).entrySet()) {
-                    sumorders.addTerm(entry.getValue(),ordvar[i]);
-                }
-            }
-
-            for (int i = 0; i < aisles.size(); i++) {
-                sumaisles.addTerm(1,aisvar[i]);
-            }
-
-            cplex.addGe(sumaisles, 1);
-
-            cplex.addGe(sumorders, waveSizeLB);
-
-            cplex.addLe(sumorders, waveSizeUB);
-
-            for (int i = 0; i < nItems; i++) {
-                IloLinearNumExpr ordersum = cplex.linearNumExpr();
-                IloLinearNumExpr aislesum = cplex.linearNumExpr();
-                for (Map.Entry<Integer, Integer> entry: OrderItems[i].entrySet()) {
-                    ordersum.addTerm(entry.getValue(),ordvar[entry.getKey()]);
-                }
-                for (Map.Entry<Integer, Integer> entry : AisleItems[i].entrySet()) {
-                    aislesum.addTerm(entry.getValue(),aisvar[entry.getKey()]);
-                }
-                cplex.addLe(ordersum,aislesum);
-            }
-            double startTime = cplex.getCplexTime();
-            cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, 0.1 );
+            WaveModel model = WaveModel.build(backend, instance);
+            int [] ordvar = model.orderVars();
+            int [] aisvar = model.aisleVars();
+            backend.setRelativeGapTolerance(0.1);
             // cplex.setParam(IloCplex.DoubleParam.WorkMem, 14000); // limitar uso de memoria pra 14 GB
             // // Descobrir o número de núcleos da CPU
             // int totalCores = Runtime.getRuntime().availableProcessors();
             // int maxThreads = (totalCores*8+9)/10; // 80% dos núcleos
             // // Limitar o número de threads do CPLEX
             // cplex.setParam(IloCplex.IntParam.Threads, maxThreads);
-            IloLinearNumExpr objetivo = cplex.linearNumExpr();
-            for(int c = 0; c < BIN_ITER; c++)
-            {
-                if(getRemainingTime(stopWatch) <= 10)
-                    break;
-                iterr = c;
-                if(c == 10 || getRemainingTime(stopWatch) <= 150)
-                {
-                    cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, 0.0);
-                }
-                // if(c != 0){
-                    // System.out.println("ALO7 "+cplex.getObjValue());
-                // }
-                // double mid = l;
-                if(c == BIN_ITER-1 || getRemainingTime(stopWatch) <= 150)
-                    System.out.println("\n -------Execução " + c+" l "+l+" Tempo Disponivel "+(getRemainingTime(stopWatch)-10)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
-                else   
-                    System.out.println("\n -------Execução " + c+" l "+l+" Tempo Disponivel "+(getRemainingTime(stopWatch)-10)/(2)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
-                if(c == 0 || Math.abs(cplex.getObjValue()) > epsilon)
-                {
-                    if(c != 0){
-                        // cplex.addGe(objetivo, cplex.getObjValue());
-                        cplex.remove(objective);
-                        // cplex.setParam(IloCplex.IntParam.RootAlg, IloCplex.Algorithm.Dual);
-                    }
-                    objetivo = cplex.linearNumExpr();
-                    for (int i = 0; i < orders.size(); i++) {
-                        for (Map.Entry<Integer, Integer> entry : orders.get(i).entrySet()) {
-                            objetivo.addTerm(entry.getValue(),ordvar[i]);
-                        }
+            DinkelbachDriver driver = new DinkelbachDriver(backend, ordvar, model.orderUnits(), aisvar);
+            driver.setName("current");
+            driver.setAlpha(1e-8);
+            driver.setEpsilon(epsilon);
+            driver.setMaxIterations((int) BIN_ITER);
+            DinkelbachDriver.Outcome outcome = driver.run(new DinkelbachDriver.IterationListener() {
+                @Override
+                public double beforeSolve(int c, double l) {
+                    if(getRemainingTime(stopWatch) <= 10)
+                        return -1;
+                    if(c == 10 || getRemainingTime(stopWatch) <= 150)
+                    {
+                        backend.setRelativeGapTolerance(0.0);
                     }
-                    
-                    for (int i = 0; i < aisles.size(); i++) {
-                        objetivo.addTerm(-l,aisvar[i]);
+                    // TIRANDO TLE PRA BRUTAR
+                    if(c == BIN_ITER-1 || getRemainingTime(stopWatch) <= 150) {
+                        System.out.println("\n -------Execução " + c+" l "+l+" Tempo Disponivel "+(getRemainingTime(stopWatch)-10)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
+                        return getRemainingTime(stopWatch)-10;
                     }
-
-                    
-                    objective = cplex.addMaximize(objetivo);
+                    System.out.println("\n -------Execução " + c+" l "+l+" Tempo Disponivel "+(getRemainingTime(stopWatch)-10)/(2)+" Real time "+getRemainingTime(stopWatch)+" ------\n");
+                    return (getRemainingTime(stopWatch)-10)/(2);
                 }
 
-                // TIRANDO TLE PRA BRUTAR
-                if(c == BIN_ITER-1 || getRemainingTime(stopWatch) <= 150)
-                    cplex.setParam(IloCplex.DoubleParam.TiLim, (getRemainingTime(stopWatch)-10));
-                else
-                    cplex.setParam(IloCplex.DoubleParam.TiLim, (getRemainingTime(stopWatch)-10)/(2));
-                if (cplex.solve()) {
-                    System.out.println("Valor ótimo = " + cplex.getObjValue());
-                    int tot = 0;
-                    for (int i = 0; i < aisles.size(); i++) {
-                        if(cplex.getValue(aisvar[i]) > 0.5)
-                            tot = tot+1;
-                    }
-                    l = l + cplex.getObjValue()/tot;
-                    if(cplex.getStatus() == IloCplex.Status.Optimal && Math.abs(cplex.getObjValue()) < epsilon){
-                        mark = true;
-                        break;
-                    }
-                    // if(Math.abs(cplex.getObjValue()) > epsilon)
-                    // System.out.println(cplex.getObjValue());
-                    System.out.println("\n -------Resultado: l "+l+" diff "+cplex.getObjValue()+ " GAP "+cplex.getMIPRelativeGap() + " Otima? "+cplex.getStatus()+ " Tempo gasto: " + stopWatch.getTime(TimeUnit.SECONDS) + "s" +" ------\n");
-                } else {
-                    cplex.end();
-                    System.out.println("Não foi encontrada solução viável.");
-                    return null;
-                } 
+                @Override
+                public void afterSolve(int c, double l, MipBackend.Status status, double objective) {
+                    System.out.println("Valor ótimo = " + objective);
+                    if(status != MipBackend.Status.OPTIMAL || Math.abs(objective) >= epsilon)
+                        System.out.println("\n -------Resultado: l "+l+" diff "+objective+ " GAP "+backend.getRelativeGap() + " Otima? "+status+ " Tempo gasto: " + stopWatch.getTime(TimeUnit.SECONDS) + "s" +" ------\n");
+                }
+            });
+            if (outcome == DinkelbachDriver.Outcome.NO_SOLUTION) {
+                System.out.println("Não foi encontrada solução viável.");
+                return null;
+            }
+            if (driver.iterations() == 0) {
+                return null;
             }
-            
 
             try (BufferedWriter writer = new BufferedWriter(new FileWriter("log.txt", true))) {
-                writer.write("\n -------Resultado: l "+l+" diff "+cplex.getObjValue()+ " GAP "+cplex.getMIPRelativeGap() + " Otima? "+cplex.getStatus()+ " Tempo gasto: " + stopWatch.getTime(TimeUnit.SECONDS) + "s" + "iterations" + iterr+" order size "+ orders.size() + " aisle size " +aisles.size()+" ------\n");
+                writer.write("\n -------Resultado: l "+driver.alpha()+" diff "+driver.objective()+ " GAP "+backend.getRelativeGap() + " Otima? "+driver.status()+ " Tempo gasto: " + stopWatch.getTime(TimeUnit.SECONDS) + "s" + "iterations" + driver.iterations()+" order size "+ nOrders + " aisle size " +nAisles+" ------\n");
             } catch (IOException e) {
                 e.printStackTrace();
             }
-            orderset.clear();
-            aisleset.clear();
-            for (int i = 0; i < orders.size(); i++) {
-                if(cplex.getValue(ordvar[i]) > 0.5)
+            double[] ordValues = backend.getValues(ordvar);
+            double[] aisValues = backend.getValues(aisvar);
+            for (int i = 0; i < nOrders; i++) {
+                if(ordValues[i] > 0.5)
                     orderset.add(i);
             }
-            for (int i = 0; i < aisles.size(); i++) {
-                if(cplex.getValue(aisvar[i]) > + 0.5)
+            for (int i = 0; i < nAisles; i++) {
+                if(aisValues[i] > 0.5)
                     aisleset.add(i);
             }
-            cplex.end();
             return new ChallengeSolution(orderset,aisleset);
             
-        } catch (IloException e) {
+        } catch (MipBackendException e) {
             e.printStackTrace(System.out);
         }
         // Fechar o solver
@@ -230,64 +134,10 @@ public class current {
     }
 
     protected boolean isSolutionFeasible(ChallengeSolution challengeSolution) {
-        Set<Integer> selectedOrders = challengeSolution.orders();
-        Set<Integer> visitedAisles = challengeSolution.aisles();
-        if (selectedOrders == null || visitedAisles == null || selectedOrders.isEmpty() || visitedAisles.isEmpty()) {
-            return false;
-        }
-
-        int[] totalUnitsPicked = new int[nItems];
-        int[] totalUnitsAvailable = new int[nItems];
-
-        // Calculate total units picked
-        for (int order : selectedOrders) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                totalUnitsPicked[entry.getKey()] += entry.getValue();
-            }
-        }
-
-        // Calculate total units available
-        for (int aisle : visitedAisles) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                totalUnitsAvailable[entry.getKey()] += entry.getValue();
-            }
-        }
-
-        // Check if the total units picked are within bounds
-        int totalUnits = Arrays.stream(totalUnitsPicked).sum();
-        if (totalUnits < waveSizeLB || totalUnits > waveSizeUB) {
-            return false;
-        }
-
-        // Check if the units picked do not exceed the units available
-        for (int i = 0; i < nItems; i++) {
-            if (totalUnitsPicked[i] > totalUnitsAvailable[i]) {
-                return false;
-            }
-        }
-
-        return true;
+        return evaluator.isFeasible(challengeSolution);
     }
 
     protected double computeObjectiveFunction(ChallengeSolution challengeSolution) {
-        Set<Integer> selectedOrders = challengeSolution.orders();
-        Set<Integer> visitedAisles = challengeSolution.aisles();
-        if (selectedOrders == null || visitedAisles == null || selectedOrders.isEmpty() || visitedAisles.isEmpty()) {
-            return 0.0;
-        }
-        int totalUnitsPicked = 0;
-
-        // Calculate total units picked
-        for (int order : selectedOrders) {
-            totalUnitsPicked += orders.get(order).values().stream()
-                    .mapToInt(Integer::intValue)
-                    .sum();
-        }
-
-        // Calculate the number of visited aisles
-        int numVisitedAisles = visitedAisles.size();
-
-        // Objective function: total units picked / number of visited aisles
-        return (double) totalUnitsPicked / numVisitedAisles;
+        return evaluator.objective(challengeSolution);
     }
 }